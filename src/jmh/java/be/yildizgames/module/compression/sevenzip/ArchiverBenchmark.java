@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the pack and unpack operations of the archiver given by the provider,
+ * the native one when NATIVE_7Z_PATH is set, the java one otherwise.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArchiverBenchmark {
+
+    @Param({"10", "200"})
+    public int entries;
+
+    @Param({"4096", "262144"})
+    public int entrySize;
+
+    @Param({"7z", "zip"})
+    public String format;
+
+    private ArchiverEngine archiver;
+
+    private Path directory;
+
+    private List<Path> files;
+
+    private Path archive;
+
+    private Path packTarget;
+
+    private Path unpackTarget;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.archiver = new SevenZipArchiverProvider().getArchiverEngine();
+        this.directory = Files.createTempDirectory("archiver-benchmark");
+        this.files = BenchmarkFiles.create(this.directory.resolve("files"), this.entries, this.entrySize);
+        this.archive = this.directory.resolve("archive." + this.format);
+        this.archiver.pack(this.files, this.archive);
+    }
+
+    /**
+     * Remove the previous outputs outside of the measured time, so every invocation starts from the same state.
+     */
+    @Setup(Level.Invocation)
+    public void clean() throws IOException {
+        this.packTarget = this.directory.resolve("packed." + this.format);
+        this.unpackTarget = this.directory.resolve("unpacked");
+        Files.deleteIfExists(this.packTarget);
+        BenchmarkFiles.delete(this.unpackTarget);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public void pack() {
+        this.archiver.pack(this.files, this.packTarget);
+    }
+
+    @Benchmark
+    public void packParallel() {
+        this.archiver.pack(this.files, this.packTarget, Parallelism.available());
+    }
+
+    @Benchmark
+    public void unpack() {
+        this.archiver.unpack(this.archive, this.unpackTarget);
+    }
+
+    @Benchmark
+    public void unpackParallel() {
+        this.archiver.unpack(this.archive, this.unpackTarget, Parallelism.available());
+    }
+
+    @Benchmark
+    public void unpackSingleEntry() {
+        this.archiver.unpack(this.archive, this.files.getLast().getFileName().toString(), this.unpackTarget);
+    }
+}
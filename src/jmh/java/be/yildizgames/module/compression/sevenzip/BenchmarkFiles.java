@@ -0,0 +1,83 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generate the benchmark inputs, the same parameters always produce the same files, so results are comparable across runs.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+        super();
+    }
+
+    /**
+     * Create files with pseudo random content, one byte out of two is zero so the content compresses like typical assets.
+     *
+     * @param directory Directory where the files are created.
+     * @param count Number of files.
+     * @param size Size of each file in bytes.
+     * @return The created files, in name order.
+     * @throws IOException If a file cannot be written.
+     */
+    static List<Path> create(Path directory, int count, int size) throws IOException {
+        var random = new Random(31L * count + size);
+        var files = new ArrayList<Path>(count);
+        var content = new byte[size];
+        Files.createDirectories(directory);
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(content);
+            for (int j = 0; j < size; j += 2) {
+                content[j] = 0;
+            }
+            files.add(Files.write(directory.resolve(String.format("file%05d.bin", i)), content));
+        }
+        return files;
+    }
+
+    /**
+     * Delete a directory and its content.
+     *
+     * @param directory Directory to delete.
+     * @throws IOException If the directory cannot be listed.
+     */
+    static void delete(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (var paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.module.compression.FileInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the archive info retrievers, the retrievers are created directly so the provider cache is not involved.
+ * CRC32 alone is read from the headers, the MD5 benchmarks measure the entries decoding and hashing.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileInfoRetrieverBenchmark {
+
+    @Param({"10", "1000"})
+    public int entries;
+
+    @Param({"4096", "262144"})
+    public int entrySize;
+
+    private Path directory;
+
+    private Path sevenZip;
+
+    private Path zip;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("retriever-benchmark");
+        var files = BenchmarkFiles.create(this.directory.resolve("files"), this.entries, this.entrySize);
+        var archiver = new JavaSevenZipArchiver();
+        this.sevenZip = this.directory.resolve("archive.7z");
+        this.zip = this.directory.resolve("archive.zip");
+        archiver.pack(files, this.sevenZip);
+        archiver.pack(files, this.zip);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.executor.close();
+        BenchmarkFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public List<FileInfo> sevenZipNoAlgorithm() {
+        return new SevenZipFileInfoRetriever(this.sevenZip).getFileInfo();
+    }
+
+    @Benchmark
+    public List<FileInfo> sevenZipCrc32() {
+        return new SevenZipFileInfoRetriever(this.sevenZip).getFileInfo(Algorithm.CRC32);
+    }
+
+    @Benchmark
+    public List<FileInfo> sevenZipMd5() {
+        return new SevenZipFileInfoRetriever(this.sevenZip).getFileInfo(Algorithm.MD5);
+    }
+
+    @Benchmark
+    public List<FileInfo> sevenZipMd5Crc32() {
+        return new SevenZipFileInfoRetriever(this.sevenZip).getFileInfo(Algorithm.MD5, Algorithm.CRC32);
+    }
+
+    @Benchmark
+    public List<EntryInfo> sevenZipEntryInfo() {
+        return new SevenZipFileInfoRetriever(this.sevenZip).getEntryInfo();
+    }
+
+    @Benchmark
+    public List<FileInfo> zipNoAlgorithm() {
+        return new ZipFileInfoRetriever(this.zip).getFileInfo();
+    }
+
+    @Benchmark
+    public List<FileInfo> zipCrc32() {
+        return new ZipFileInfoRetriever(this.zip).getFileInfo(Algorithm.CRC32);
+    }
+
+    @Benchmark
+    public List<FileInfo> zipCrc32Parallel() {
+        return new ZipFileInfoRetriever(this.zip, this.executor).getFileInfo(Algorithm.CRC32);
+    }
+
+    @Benchmark
+    public List<FileInfo> zipMd5() {
+        return new ZipFileInfoRetriever(this.zip).getFileInfo(Algorithm.MD5);
+    }
+
+    @Benchmark
+    public List<FileInfo> zipMd5Parallel() {
+        return new ZipFileInfoRetriever(this.zip, this.executor).getFileInfo(Algorithm.MD5);
+    }
+
+    @Benchmark
+    public List<FileInfo> zipMd5Crc32Parallel() {
+        return new ZipFileInfoRetriever(this.zip, this.executor).getFileInfo(Algorithm.MD5, Algorithm.CRC32);
+    }
+
+    @Benchmark
+    public List<EntryInfo> zipEntryInfo() {
+        return new ZipFileInfoRetriever(this.zip).getEntryInfo();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the per call cost of preparing a native invocation, without the native compression itself.
+ * The lookup approach loads the library and builds the downcall handle for every call in a new arena,
+ * the cached approach uses the bindings resolved once and allocates the arguments in the thread native scratch memory, as SevenZipArchiver does.
+ * Only runs on a host where the native libraries are available, with -DNATIVE_7Z_PATH=directory, the setup fails otherwise.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SevenZipNativeBindingsBenchmark {
+
+    private static final FunctionDescriptor SINGLE_PATH = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+
+    private static final String SOURCE = "source/file.bin";
+
+    private static final String DESTINATION = "target/archive.7z";
+
+    private Path nativeLibrary;
+
+    private String sevenZipLibrary;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var directory = SevenZipNativeLibrary.directory();
+        this.nativeLibrary = directory.resolve("libmodule_compression_7z.dll");
+        this.sevenZipLibrary = directory.resolve("7z.dll").toString();
+        // Load the libraries and resolve the bindings outside of the measured time.
+        SevenZipNativeBindings.SEVEN_ZIP_LIBRARY.address();
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        try (var session = Arena.ofConfined()) {
+            var address = SymbolLookup.libraryLookup(this.nativeLibrary, session).find("compressSingleFile7z").orElseThrow();
+            blackhole.consume(Linker.nativeLinker().downcallHandle(address, SINGLE_PATH));
+            blackhole.consume(session.allocateFrom(this.sevenZipLibrary));
+            blackhole.consume(session.allocateFrom(SOURCE));
+            blackhole.consume(session.allocateFrom(DESTINATION));
+        }
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        var scratch = NativeScratch.allocator(NativeScratch.sizeOf(SOURCE, DESTINATION));
+        blackhole.consume(SevenZipNativeBindings.COMPRESS_SINGLE_FILE_7Z);
+        blackhole.consume(SevenZipNativeBindings.SEVEN_ZIP_LIBRARY);
+        blackhole.consume(scratch.allocateFrom(SOURCE));
+        blackhole.consume(scratch.allocateFrom(DESTINATION));
+    }
+}
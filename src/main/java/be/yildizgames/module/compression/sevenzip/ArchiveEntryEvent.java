@@ -0,0 +1,69 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for an entry packed or unpacked by the sequential operations of the java engine.
+ * Creating and ending the event costs close to nothing when no recording is enabled.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.compression.ArchiveEntry")
+@Label("Archive Entry")
+@Category({"Yildiz", "Compression"})
+@Description("Entry packed in or unpacked from an archive")
+final class ArchiveEntryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Archive")
+    String archive;
+
+    @Label("Entry")
+    String entry;
+
+    @Label("Uncompressed Size")
+    @DataAmount
+    long bytes;
+
+    /**
+     * End the event and commit it, if it is recorded.
+     *
+     * @param operation Operation type.
+     * @param archive Archive name.
+     * @param entry Entry name.
+     * @param bytes Uncompressed bytes processed.
+     */
+    void complete(OperationMetrics.Type operation, Object archive, String entry, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.name();
+            this.archive = archive.toString();
+            this.entry = entry;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.nio.file.Path;
+
+/**
+ * Archive formats supported by this module.
+ *
+ * @author Grégory Van den Borre
+ */
+public enum ArchiveFormat {
+
+    SEVEN_ZIP(".7z"),
+
+    ZIP(".zip");
+
+    /**
+     * File extension for this format.
+     */
+    private final String extension;
+
+    ArchiveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Provide the format of an archive from its file extension.
+     *
+     * @param archive Archive path.
+     * @return The archive format.
+     * @throws IllegalArgumentException If the extension is not supported.
+     */
+    public static ArchiveFormat of(Path archive) {
+        for (var format : values()) {
+            if (archive.toString().endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Only .7z or .zip archives are supported");
+    }
+
+    /**
+     * @return The file extension for this format, with the leading dot.
+     */
+    public String getExtension() {
+        return this.extension;
+    }
+}
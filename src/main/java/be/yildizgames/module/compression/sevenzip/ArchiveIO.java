@@ -0,0 +1,171 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Shared helpers to stream archive entries.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ArchiveIO {
+
+    /**
+     * Size of the buffer used to stream the data.
+     */
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Buffer reused by all operations running in the same thread.
+     */
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private ArchiveIO() {
+        super();
+    }
+
+    /**
+     * @return The buffer of the current thread, it must not be used by nested operations.
+     */
+    static byte[] buffer() {
+        return BUFFER.get();
+    }
+
+    /**
+     * Resolve the path of an entry in the destination directory, entries trying to escape the directory are rejected.
+     *
+     * @param destinationDirectory Directory where the entries are extracted.
+     * @param name Entry name.
+     * @return The path where the entry will be extracted.
+     * @throws IllegalArgumentException If the entry is outside of the destination directory.
+     */
+    static Path resolve(Path destinationDirectory, String name) {
+        var directory = destinationDirectory.toAbsolutePath().normalize();
+        var target = directory.resolve(name).normalize();
+        if (!target.startsWith(directory)) {
+            throw new IllegalArgumentException("Entry is outside of the destination directory: " + name);
+        }
+        return target;
+    }
+
+    /**
+     * Copy a stream into another one.
+     *
+     * @param in Stream to read, not closed.
+     * @param out Stream to write, not closed.
+     * @param buffer Buffer to use.
+     * @return The number of bytes copied.
+     * @throws IOException If an error occurs while reading or writing.
+     */
+    static long copy(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        var total = 0L;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Provide a source opening new channels on an archive file.
+     *
+     * @param archive Archive to read.
+     * @return The source.
+     */
+    static ChannelSource source(Path archive) {
+        return () -> Files.newByteChannel(archive);
+    }
+
+    /**
+     * Provide a source reusing a channel owned by the caller, the channel is rewound at each opening and never closed.
+     *
+     * @param channel Channel to read.
+     * @return The source.
+     */
+    static ChannelSource source(SeekableByteChannel channel) {
+        return () -> new UnclosedChannel(channel.position(0));
+    }
+
+    /**
+     * Open the channels to read an archive.
+     */
+    @FunctionalInterface
+    interface ChannelSource {
+
+        /**
+         * @return A channel positioned at the archive start, to be closed by the caller.
+         * @throws IOException If the channel cannot be opened.
+         */
+        SeekableByteChannel open() throws IOException;
+    }
+
+    /**
+     * Channel view ignoring close, commons-compress closes the channels it reads.
+     */
+    private record UnclosedChannel(SeekableByteChannel channel) implements SeekableByteChannel {
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return this.channel.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return this.channel.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return this.channel.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            this.channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.channel.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            this.channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // The channel belongs to the caller.
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.module.compression.FileInfo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache for the parsed index and computed hashes of archives.
+ * An archive is identified by its path, size and last modification time, a modified archive is read again.
+ * The capacity is expressed in number of cached entries for all archives, the least recently used archives are evicted first.
+ * This class is thread safe, archives are read outside of the cache lock.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ArchiveIndexCache {
+
+    /**
+     * Maximum number of entries cached, for all archives.
+     */
+    private final long maximumWeight;
+
+    /**
+     * Cached archives, in access order.
+     */
+    private final LinkedHashMap<Path, CachedArchive> archives = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Current number of entries cached, guarded by this.
+     */
+    private long weight;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maximumWeight Maximum number of entries cached, for all archives.
+     */
+    public ArchiveIndexCache(long maximumWeight) {
+        super();
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Provide the entries info of an archive, read it only if not cached.
+     *
+     * @param archive Archive path.
+     * @param loader Read the entries info from the archive.
+     * @return The entries info.
+     */
+    List<EntryInfo> getEntryInfo(Path archive, Supplier<List<EntryInfo>> loader) {
+        var version = Version.of(archive);
+        synchronized (this) {
+            var cached = get(archive, version);
+            if (cached != null && cached.index != null) {
+                this.hits.increment();
+                return cached.index;
+            }
+        }
+        this.misses.increment();
+        var index = List.copyOf(loader.get());
+        synchronized (this) {
+            var cached = getOrCreate(archive, version);
+            if (cached.index == null) {
+                cached.index = index;
+                add(cached, index.size());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Provide the file info of an archive, computed with the given algorithms, compute them only if not cached.
+     *
+     * @param archive Archive path.
+     * @param algorithms Algorithms to compute.
+     * @param loader Compute the file info from the archive.
+     * @return The file info.
+     */
+    List<FileInfo> getFileInfo(Path archive, Algorithm[] algorithms, Supplier<List<FileInfo>> loader) {
+        var version = Version.of(archive);
+        var cachedInfo = find(archive, version, algorithms);
+        if (cachedInfo.isPresent()) {
+            return cachedInfo.get();
+        }
+        this.misses.increment();
+        var info = List.copyOf(loader.get());
+        synchronized (this) {
+            var cached = getOrCreate(archive, version);
+            if (cached.hashes.putIfAbsent(List.of(algorithms), info) == null) {
+                add(cached, info.size());
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Provide the file info of an archive, computed with the given algorithms, only if cached.
+     * A hit is counted when found, nothing is counted otherwise.
+     *
+     * @param archive Archive path.
+     * @param algorithms Algorithms to compute.
+     * @return The cached file info, empty if not cached.
+     */
+    Optional<List<FileInfo>> findFileInfo(Path archive, Algorithm[] algorithms) {
+        return find(archive, Version.of(archive), algorithms);
+    }
+
+    /**
+     * @return The current statistics.
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.archives.size(), this.weight);
+    }
+
+    /**
+     * Remove all the cached archives, statistics are kept.
+     */
+    public synchronized void clear() {
+        this.archives.clear();
+        this.weight = 0;
+    }
+
+    private synchronized Optional<List<FileInfo>> find(Path archive, Version version, Algorithm[] algorithms) {
+        var cached = get(archive, version);
+        var info = cached == null ? null : cached.hashes.get(List.of(algorithms));
+        if (info != null) {
+            this.hits.increment();
+        }
+        return Optional.ofNullable(info);
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private CachedArchive get(Path archive, Version version) {
+        var cached = this.archives.get(archive);
+        if (cached != null && !cached.version.equals(version)) {
+            remove(archive, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private CachedArchive getOrCreate(Path archive, Version version) {
+        var cached = get(archive, version);
+        if (cached == null) {
+            cached = new CachedArchive(version);
+            this.archives.put(archive, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private void add(CachedArchive cached, long entries) {
+        cached.weight += entries;
+        this.weight += entries;
+        var iterator = this.archives.entrySet().iterator();
+        while (this.weight > this.maximumWeight && iterator.hasNext()) {
+            var eldest = iterator.next().getValue();
+            iterator.remove();
+            this.weight -= eldest.weight;
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private void remove(Path archive, CachedArchive cached) {
+        this.archives.remove(archive);
+        this.weight -= cached.weight;
+    }
+
+    /**
+     * Identify an archive version on disk.
+     *
+     * @param size Archive size.
+     * @param lastModified Archive last modification time.
+     */
+    private record Version(long size, FileTime lastModified) {
+
+        private static Version of(Path archive) {
+            try {
+                var attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+                return new Version(attributes.size(), attributes.lastModifiedTime());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Data cached for an archive, guarded by the cache lock.
+     */
+    private static final class CachedArchive {
+
+        private final Version version;
+
+        private final Map<List<Algorithm>, List<FileInfo>> hashes = new HashMap<>();
+
+        private List<EntryInfo> index;
+
+        private long weight;
+
+        private CachedArchive(Version version) {
+            super();
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.module.compression.FileInfo;
+import be.yildizgames.module.compression.FileInfoRetriever;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * File info retriever able to answer from the archive headers only.
+ * CRC32 requests are answered from the CRC stored for every entry, the entries are decompressed only for the other algorithms.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ArchiveInfoRetriever extends FileInfoRetriever {
+
+    /**
+     * Provide the sizes, timestamps and CRC of the entries, only the archive headers are read.
+     *
+     * @return The entries info, in the archive order.
+     */
+    List<EntryInfo> getEntryInfo();
+
+    /**
+     * Provide the file info lazily, each entry is emitted as soon as it is read and hashed, in the archive order.
+     * The memory used does not depend on the number of entries.
+     * The stream holds the archive open and must be closed.
+     *
+     * @param algorithms Algorithms to compute for every entry.
+     * @return The file info stream.
+     */
+    Stream<FileInfo> streamFileInfo(Algorithm... algorithms);
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for an archive operation, emitted by the InstrumentedArchiver and the instrumented info retrievers.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.compression.ArchiveOperation")
+@Label("Archive Operation")
+@Category({"Yildiz", "Compression"})
+@Description("Pack, unpack or info read of an archive")
+final class ArchiveOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Archive")
+    String archive;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Native Error")
+    @Description("True if the native function returned an error code")
+    boolean nativeError;
+
+    @Label("Error Code")
+    @Description("Code returned by the native function, only meaningful with a native error")
+    int errorCode;
+
+    /**
+     * End the event and commit it with the operation measures, if it is recorded.
+     *
+     * @param metrics Operation measures.
+     */
+    void complete(OperationMetrics metrics) {
+        end();
+        if (shouldCommit()) {
+            this.operation = metrics.type().name();
+            this.archive = metrics.archive();
+            this.bytesIn = metrics.bytesIn();
+            this.bytesOut = metrics.bytesOut();
+            this.success = metrics.success();
+            this.nativeError = metrics.errorCode().isPresent();
+            this.errorCode = metrics.errorCode().orElse(0);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Failure of a native archive operation, carrying the native error code, the operation and how long it ran before failing.
+ * Callers can use the reason to fail fast on errors that a retry will not fix, and retry only the failed items of a batch.
+ * A native function that could not be invoked has no error code, any value can be returned by the native library.
+ * A native library that could not be loaded is reported as LIBRARY_NOT_FOUND, without error code.
+ *
+ * @author Grégory Van den Borre
+ */
+public class ArchiveOperationException extends IllegalStateException {
+
+    private final Operation operation;
+
+    /**
+     * Code returned by the native function, empty if it could not be invoked.
+     */
+    private final OptionalInt errorCode;
+
+    private final Duration duration;
+
+    /**
+     * Reason of the failure, matching the error code if there is one.
+     */
+    private final Reason reason;
+
+    /**
+     * Create an exception for a native function returning an error code.
+     *
+     * @param operation Failed operation.
+     * @param errorCode Code returned by the native function.
+     * @param context Description of the operation arguments.
+     * @param duration Time spent in the operation.
+     */
+    public ArchiveOperationException(Operation operation, int errorCode, String context, Duration duration) {
+        super(Reason.of(errorCode).description + " " + operation + " " + context + " (code " + errorCode + ", after " + duration.toMillis() + "ms)");
+        this.operation = Objects.requireNonNull(operation);
+        this.errorCode = OptionalInt.of(errorCode);
+        this.duration = Objects.requireNonNull(duration);
+        this.reason = Reason.of(errorCode);
+    }
+
+    /**
+     * Create an exception for a native function that could not be invoked.
+     *
+     * @param operation Failed operation.
+     * @param context Description of the operation arguments.
+     * @param duration Time spent in the operation.
+     * @param cause Invocation error.
+     */
+    public ArchiveOperationException(Operation operation, String context, Duration duration, Throwable cause) {
+        this(operation, Reason.INVOCATION_FAILED, context, duration, cause);
+    }
+
+    /**
+     * Create an exception for a native function that could not be invoked for a known reason,
+     * LIBRARY_NOT_FOUND if the native library could not be loaded.
+     *
+     * @param operation Failed operation.
+     * @param reason Reason of the failure.
+     * @param context Description of the operation arguments.
+     * @param duration Time spent in the operation.
+     * @param cause Invocation error.
+     */
+    public ArchiveOperationException(Operation operation, Reason reason, String context, Duration duration, Throwable cause) {
+        super(reason.description + " " + operation + " " + context + " (after " + duration.toMillis() + "ms)", cause);
+        this.operation = Objects.requireNonNull(operation);
+        this.errorCode = OptionalInt.empty();
+        this.duration = Objects.requireNonNull(duration);
+        this.reason = reason;
+    }
+
+    /**
+     * @return The failed operation.
+     */
+    public final Operation getOperation() {
+        return this.operation;
+    }
+
+    /**
+     * @return The code returned by the native function, empty if it could not be invoked.
+     */
+    public final OptionalInt getErrorCode() {
+        return this.errorCode;
+    }
+
+    /**
+     * @return The reason matching the error code, or the reason the native function could not be invoked:
+     * LIBRARY_NOT_FOUND if the native library could not be loaded, INVOCATION_FAILED otherwise.
+     */
+    public final Reason getReason() {
+        return this.reason;
+    }
+
+    /**
+     * @return The time spent in the operation before it failed.
+     */
+    public final Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Archive operations.
+     */
+    public enum Operation {
+
+        PACK,
+
+        UNPACK
+    }
+
+    /**
+     * Known native error codes.
+     */
+    public enum Reason {
+
+        /**
+         * The native function could not be invoked, there is no error code.
+         */
+        INVOCATION_FAILED("Native invocation failed"),
+
+        DESTINATION_EXISTS(1, "Destination file already exists"),
+
+        FILE_NOT_FOUND(2, "File not found"),
+
+        ARCHIVE_NOT_FOUND(9, "Archive file does not exists"),
+
+        LIBRARY_NOT_FOUND(126, "7z Native library cannot be found"),
+
+        /**
+         * Any other code, see ArchiveOperationException.getErrorCode for its value.
+         */
+        UNKNOWN("Unknown error code");
+
+        /**
+         * Native error code, empty for the reasons not matching a single code.
+         */
+        private final OptionalInt code;
+
+        private final String description;
+
+        Reason(int code, String description) {
+            this.code = OptionalInt.of(code);
+            this.description = description;
+        }
+
+        Reason(String description) {
+            this.code = OptionalInt.empty();
+            this.description = description;
+        }
+
+        /**
+         * Provide the reason of an error code.
+         *
+         * @param code Native error code.
+         * @return The matching reason, UNKNOWN if the code is not known.
+         */
+        public static Reason of(int code) {
+            for (var reason : values()) {
+                if (reason.code.isPresent() && reason.code.getAsInt() == code) {
+                    return reason;
+                }
+            }
+            return UNKNOWN;
+        }
+
+        /**
+         * @return The native error code, empty for INVOCATION_FAILED and UNKNOWN.
+         */
+        public OptionalInt getCode() {
+            return this.code;
+        }
+    }
+}
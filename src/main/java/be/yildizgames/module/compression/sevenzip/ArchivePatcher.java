@@ -0,0 +1,636 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.sevenz.SevenZFileOptions;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Create and apply patches between two versions of an archive, so an update only ships the entries that changed.
+ * Entries are compared with the sizes and CRC stored in the archive headers, without being decompressed.
+ * A byte by byte comparison of the entries having the same size and CRC can be requested, so a CRC collision cannot hide a change.
+ * A patch is an archive holding a manifest, the added entries, and a binary delta for each changed entry.
+ * The manifest lists the entries of the new version in their order, with their last modification time and unix mode, and the removed entries.
+ * The changed entries of the old version are decoded to a temporary directory to be read at random positions.
+ * When applying a patch, the kept entries of a 7z archive are decoded in a single pass in the archive order,
+ * the ones the new version lists in another order are decoded with the changed entries,
+ * and the kept entries of a zip archive are copied without being recompressed when the new version is a zip archive too.
+ * Link entries are compared and written as the content of their target, the rebuilt archive holds them as regular entries.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ArchivePatcher {
+
+    /**
+     * Name of the manifest entry in a patch.
+     */
+    public static final String MANIFEST = "patch.manifest";
+
+    /**
+     * First line of a manifest.
+     */
+    private static final String HEADER = "archive-patch 2";
+
+    private static final String ADDED = "add/";
+
+    private static final String DELTA = "delta/";
+
+    private final JavaSevenZipArchiver archiver = new JavaSevenZipArchiver();
+
+    public ArchivePatcher() {
+        super();
+    }
+
+    /**
+     * Create a patch transforming an archive into another one, entries with the same size and CRC in both versions are considered unchanged.
+     *
+     * @param source Old version of the archive.
+     * @param target New version of the archive.
+     * @param patch Patch to create, a .7z or .zip file.
+     * @throws IllegalArgumentException If an archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    public void create(Path source, Path target, Path patch) {
+        create(source, target, patch, false);
+    }
+
+    /**
+     * Create a patch transforming an archive into another one.
+     *
+     * @param source Old version of the archive.
+     * @param target New version of the archive.
+     * @param patch Patch to create, a .7z or .zip file.
+     * @param compareContent True to decompress and compare byte by byte the entries with the same size and CRC in both versions,
+     *                       false to trust the archive headers.
+     * @throws IllegalArgumentException If an archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    public void create(Path source, Path target, Path patch, boolean compareContent) {
+        var patchFormat = ArchiveFormat.of(patch);
+        var sourceInfo = info(source);
+        var targetInfo = info(target);
+        Path temporary = null;
+        try (var sourceReader = Reader.open(source); var targetReader = Reader.open(target)) {
+            var manifest = new ArrayList<Operation>();
+            var changed = new HashSet<String>();
+            for (var name : targetReader.names()) {
+                if (name.indexOf('\n') >= 0) {
+                    throw new IllegalArgumentException("Entry name not supported in a patch: " + name);
+                }
+                var old = sourceInfo.get(name);
+                var current = targetInfo.get(name);
+                var time = targetReader.lastModified(name);
+                var mode = targetReader.mode(name);
+                if (targetReader.isDirectory(name)) {
+                    manifest.add(new Operation('d', -1, time, mode, name));
+                } else if (old == null) {
+                    manifest.add(new Operation('+', -1, time, mode, name));
+                } else if (old.crc() != -1 && old.crc() == current.crc() && old.size() == current.size() && (!compareContent || sameContent(sourceReader, targetReader, name))) {
+                    manifest.add(new Operation('=', old.crc(), time, mode, name));
+                } else {
+                    manifest.add(new Operation('~', old.crc(), time, mode, name));
+                    changed.add(name);
+                }
+            }
+            var targetNames = new HashSet<>(targetReader.names());
+            sourceInfo.keySet().stream().filter(n -> !targetNames.contains(n)).forEach(n -> manifest.add(new Operation('-', -1, null, 0, n)));
+            temporary = Files.createTempDirectory("patch");
+            var oldEntries = temporary;
+            if (!changed.isEmpty()) {
+                this.archiver.unpack(source, changed, oldEntries);
+            }
+            try (var writer = Writer.create(patch, patchFormat)) {
+                writer.file(MANIFEST, out -> out.write(format(manifest).getBytes(StandardCharsets.UTF_8)));
+                for (var operation : manifest) {
+                    if (operation.type() == '+') {
+                        writer.file(ADDED + operation.name(), out -> {
+                            try (var in = targetReader.open(operation.name())) {
+                                in.transferTo(out);
+                            }
+                        });
+                    } else if (operation.type() == '~') {
+                        writer.file(DELTA + operation.name(), out -> {
+                            try (var old = FileChannel.open(ArchiveIO.resolve(oldEntries, operation.name())); var in = targetReader.open(operation.name())) {
+                                BinaryDelta.diff(old, in, out);
+                            }
+                        });
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Create patch: " + source + " to " + target + " in " + patch, e);
+        } finally {
+            delete(temporary);
+        }
+    }
+
+    /**
+     * Apply a patch to an archive to rebuild its new version.
+     * The new version is written to a temporary file in the target directory, which is moved to the target once completed.
+     *
+     * @param source Old version of the archive, the one the patch was created from.
+     * @param patch Patch to apply.
+     * @param target New version of the archive to create, a .7z or .zip file.
+     * @throws IllegalArgumentException If an archive is not a .7z or .zip file, if the patch is invalid, or if it was not created from this source.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    public void apply(Path source, Path patch, Path target) {
+        var targetFormat = ArchiveFormat.of(target);
+        Path temporary = null;
+        Path output = null;
+        try (var patchReader = Reader.open(patch); var sourceReader = Reader.open(source)) {
+            List<Operation> manifest;
+            try (var in = patchReader.open(MANIFEST)) {
+                manifest = parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), patch);
+            }
+            var sourceInfo = info(source);
+            var changed = new HashSet<String>();
+            var sourceOrder = new HashMap<String, Integer>();
+            sourceReader.names().forEach(n -> sourceOrder.putIfAbsent(n, sourceOrder.size()));
+            var lastKept = -1;
+            for (var operation : manifest) {
+                if (operation.type() == '=' || operation.type() == '~') {
+                    var old = sourceInfo.get(operation.name());
+                    if (old == null || old.crc() != operation.crc()) {
+                        throw new IllegalArgumentException("Patch " + patch + " does not apply to " + source + ": " + operation.name() + " differs");
+                    }
+                }
+                if (operation.type() == '~') {
+                    changed.add(operation.name());
+                } else if (operation.type() == '=' && sourceReader.isSevenZip()) {
+                    // Kept 7z entries are decoded sequentially, the ones out of order or needing another entry are decoded with the changed ones.
+                    int index = sourceOrder.get(operation.name());
+                    if (index > lastKept && !sourceReader.isLink(operation.name())) {
+                        lastKept = index;
+                    } else {
+                        changed.add(operation.name());
+                    }
+                }
+            }
+            temporary = Files.createTempDirectory("patch");
+            var oldEntries = temporary;
+            if (!changed.isEmpty()) {
+                this.archiver.unpack(source, changed, oldEntries);
+            }
+            output = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+            try (var writer = Writer.create(output, targetFormat)) {
+                for (var operation : manifest) {
+                    switch (operation.type()) {
+                        case 'd' -> writer.directory(operation);
+                        case '=' -> {
+                            if (changed.contains(operation.name())) {
+                                writer.file(operation, out -> Files.copy(ArchiveIO.resolve(oldEntries, operation.name()), out));
+                            } else if (sourceReader.isSevenZip()) {
+                                writer.file(operation, out -> sourceReader.next(operation.name()).transferTo(out));
+                            } else if (targetFormat == ArchiveFormat.ZIP && !sourceReader.isLink(operation.name())) {
+                                sourceReader.copyRaw(operation, writer);
+                            } else {
+                                writer.file(operation, out -> {
+                                    try (var in = sourceReader.open(operation.name())) {
+                                        in.transferTo(out);
+                                    }
+                                });
+                            }
+                        }
+                        case '+' -> writer.file(operation, out -> {
+                            try (var in = patchReader.open(ADDED + operation.name())) {
+                                in.transferTo(out);
+                            }
+                        });
+                        case '~' -> writer.file(operation, out -> {
+                            try (var old = FileChannel.open(ArchiveIO.resolve(oldEntries, operation.name())); var in = patchReader.open(DELTA + operation.name())) {
+                                BinaryDelta.apply(old, in, out);
+                            }
+                        });
+                        default -> {
+                            // Removed entries are only listed.
+                        }
+                    }
+                }
+            }
+            Files.move(output, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Apply patch: " + patch + " to " + source + " in " + target, e);
+        } finally {
+            delete(temporary);
+            delete(output);
+        }
+    }
+
+    /**
+     * Read the names of the entries removed by a patch.
+     *
+     * @param patch Patch to read.
+     * @return The removed entries.
+     * @throws IllegalArgumentException If the patch is invalid.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    public List<String> getRemovedEntries(Path patch) {
+        try (var reader = Reader.open(patch); var in = reader.open(MANIFEST)) {
+            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), patch).stream()
+                    .filter(o -> o.type() == '-')
+                    .map(Operation::name)
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Read patch: " + patch, e);
+        }
+    }
+
+    /**
+     * Compare the content of an entry in two archives, the entries are decoded together and the comparison stops at the first difference.
+     */
+    private static boolean sameContent(Reader source, Reader target, String name) throws IOException {
+        try (var a = source.open(name); var b = target.open(name)) {
+            var bufferA = ArchiveIO.buffer();
+            var bufferB = new byte[bufferA.length];
+            int read;
+            while ((read = a.readNBytes(bufferA, 0, bufferA.length)) > 0) {
+                if (b.readNBytes(bufferB, 0, read) != read || !Arrays.equals(bufferA, 0, read, bufferB, 0, read)) {
+                    return false;
+                }
+            }
+            return b.read() == -1;
+        }
+    }
+
+    private static Map<String, EntryInfo> info(Path archive) {
+        var retriever = ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP ? new SevenZipFileInfoRetriever(archive) : new ZipFileInfoRetriever(archive);
+        return retriever.getEntryInfo().stream().collect(Collectors.toMap(EntryInfo::name, Function.identity(), (a, b) -> b, LinkedHashMap::new));
+    }
+
+    private static String format(List<Operation> manifest) {
+        var result = new StringBuilder(HEADER).append('\n');
+        for (var operation : manifest) {
+            result.append(operation.type()).append(' ');
+            if (operation.type() == '=' || operation.type() == '~') {
+                result.append(operation.crc()).append(' ');
+            }
+            if (operation.type() != '-') {
+                result.append(operation.time() == null ? "-" : operation.time().toInstant()).append(' ').append(Integer.toOctalString(operation.mode())).append(' ');
+            }
+            result.append(operation.name()).append('\n');
+        }
+        return result.toString();
+    }
+
+    private static List<Operation> parse(String content, Path patch) {
+        var lines = content.split("\n");
+        if (lines.length == 0 || !lines[0].equals(HEADER)) {
+            throw new IllegalArgumentException("Invalid patch manifest: " + patch);
+        }
+        var result = new ArrayList<Operation>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            var line = lines[i];
+            if (line.length() < 3 || line.charAt(1) != ' ') {
+                throw new IllegalArgumentException("Invalid patch manifest line " + i + ": " + patch);
+            }
+            var type = line.charAt(0);
+            var fields = switch (type) {
+                case '=', '~' -> 3;
+                case '+', 'd' -> 2;
+                case '-' -> 0;
+                default -> throw new IllegalArgumentException("Invalid patch manifest line " + i + ": " + patch);
+            };
+            var values = line.substring(2).split(" ", fields + 1);
+            if (values.length != fields + 1) {
+                throw new IllegalArgumentException("Invalid patch manifest line " + i + ": " + patch);
+            }
+            try {
+                var crc = fields == 3 ? Long.parseLong(values[0]) : -1;
+                var time = fields == 0 || values[fields - 2].equals("-") ? null : FileTime.from(Instant.parse(values[fields - 2]));
+                var mode = fields == 0 ? 0 : Integer.parseInt(values[fields - 1], 8);
+                result.add(new Operation(type, crc, time, mode, values[fields]));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid patch manifest line " + i + ": " + patch, e);
+            }
+        }
+        return result;
+    }
+
+    private static void delete(Path path) {
+        if (path == null) {
+            return;
+        }
+        try (var files = Files.walk(path)) {
+            for (var file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // Temporary files are left behind, the result is not affected.
+        }
+    }
+
+    /**
+     * Line of the manifest.
+     *
+     * @param type = unchanged, ~ changed, + added, - removed, d directory.
+     * @param crc CRC of the entry in the old version for the unchanged and changed entries, -1 otherwise.
+     * @param time Last modification time of the entry in the new version, null if unknown.
+     * @param mode Unix mode of the entry in the new version, 0 if unknown.
+     * @param name Entry name.
+     */
+    private record Operation(char type, long crc, FileTime time, int mode, String name) {
+    }
+
+    /**
+     * Write the content of an entry.
+     */
+    @FunctionalInterface
+    private interface Content {
+
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Read the entries of an archive in any order, link entries are read as the content of their target.
+     * The entries of a 7z archive can also be read sequentially, the archive must then not be read in any order.
+     */
+    private static final class Reader implements Closeable {
+
+        private final SevenZFile sevenZFile;
+
+        private final Map<String, SevenZArchiveEntry> sevenZEntries = new LinkedHashMap<>();
+
+        private final ZipFile zip;
+
+        private Reader(SevenZFile sevenZFile, ZipFile zip) {
+            super();
+            this.sevenZFile = sevenZFile;
+            this.zip = zip;
+            if (sevenZFile != null) {
+                sevenZFile.getEntries().forEach(e -> this.sevenZEntries.put(e.getName(), e));
+            }
+        }
+
+        private static Reader open(Path archive) throws IOException {
+            if (ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP) {
+                return new Reader(new SevenZFile(Files.newByteChannel(archive), archive.toString(), SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build()), null);
+            }
+            return new Reader(null, new ZipFile(Files.newByteChannel(archive)));
+        }
+
+        /**
+         * @return The entry names, in the archive order.
+         */
+        private List<String> names() {
+            if (this.zip != null) {
+                var result = new ArrayList<String>();
+                this.zip.getEntriesInPhysicalOrder().asIterator().forEachRemaining(e -> result.add(e.getName()));
+                return result;
+            }
+            return List.copyOf(this.sevenZEntries.keySet());
+        }
+
+        private boolean isDirectory(String name) {
+            return this.zip != null ? this.zip.getEntry(name).isDirectory() : this.sevenZEntries.get(name).isDirectory();
+        }
+
+        /**
+         * @param name Entry name.
+         * @return The last modification time of the entry, null if unknown.
+         */
+        private FileTime lastModified(String name) {
+            if (this.zip != null) {
+                return this.zip.getEntry(name).getLastModifiedTime();
+            }
+            var entry = this.sevenZEntries.get(name);
+            return entry.getHasLastModifiedDate() ? entry.getLastModifiedTime() : null;
+        }
+
+        /**
+         * Provide the unix mode of an entry, the mode of a link entry is the one of its target.
+         *
+         * @param name Entry name.
+         * @return The unix mode of the entry, 0 if unknown.
+         * @throws IOException If a link entry cannot be read.
+         */
+        private int mode(String name) throws IOException {
+            if (this.zip != null) {
+                return Deduplicator.resolve(this.zip, this.zip.getEntry(name)).getUnixMode();
+            }
+            var entry = Deduplicator.resolve(this.sevenZFile, this.sevenZEntries.get(name));
+            return entry.getHasWindowsAttributes() && (entry.getWindowsAttributes() & 0x8000) != 0 ? entry.getWindowsAttributes() >>> 16 : 0;
+        }
+
+        private boolean isSevenZip() {
+            return this.sevenZFile != null;
+        }
+
+        private boolean isLink(String name) {
+            return this.zip != null ? Deduplicator.isLink(this.zip.getEntry(name)) : Deduplicator.isLink(this.sevenZEntries.get(name));
+        }
+
+        /**
+         * Read the next requested entry of a 7z archive, skipping the entries before it.
+         *
+         * @param name Entry name, after the previously requested entry in the archive order.
+         * @return The entry content, valid until the next call.
+         * @throws IOException If the archive cannot be read.
+         */
+        private InputStream next(String name) throws IOException {
+            for (var e = this.sevenZFile.getNextEntry(); e != null; e = this.sevenZFile.getNextEntry()) {
+                if (e.getName().equals(name)) {
+                    return new InputStream() {
+                        @Override
+                        public int read() throws IOException {
+                            return sevenZFile.read();
+                        }
+
+                        @Override
+                        public int read(byte[] b, int off, int len) throws IOException {
+                            return sevenZFile.read(b, off, len);
+                        }
+                    };
+                }
+            }
+            throw new IllegalArgumentException("File not found: " + name);
+        }
+
+        /**
+         * Copy a zip entry to a zip archive without recompressing it.
+         *
+         * @param operation Entry to copy, with its last modification time and unix mode in the new version.
+         * @param writer Zip archive to write.
+         * @throws IOException If the entry cannot be copied.
+         */
+        private void copyRaw(Operation operation, Writer writer) throws IOException {
+            var entry = this.zip.getEntry(operation.name());
+            var copy = new ZipArchiveEntry(entry);
+            Writer.metadata(copy, operation);
+            try (var in = this.zip.getRawInputStream(entry)) {
+                writer.zip.addRawArchiveEntry(copy, in);
+            }
+        }
+
+        private InputStream open(String name) throws IOException {
+            if (this.zip != null) {
+                var entry = this.zip.getEntry(name);
+                if (entry != null) {
+                    return this.zip.getInputStream(Deduplicator.resolve(this.zip, entry));
+                }
+            } else {
+                var entry = this.sevenZEntries.get(name);
+                if (entry != null) {
+                    return this.sevenZFile.getInputStream(Deduplicator.resolve(this.sevenZFile, entry));
+                }
+            }
+            throw new IllegalArgumentException("File not found: " + name);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.zip != null) {
+                this.zip.close();
+            } else {
+                this.sevenZFile.close();
+            }
+        }
+    }
+
+    /**
+     * Write the entries of an archive sequentially.
+     */
+    private static final class Writer implements Closeable {
+
+        private final SevenZOutputFile sevenZ;
+
+        private final ZipArchiveOutputStream zip;
+
+        private final OutputStream stream;
+
+        private Writer(SevenZOutputFile sevenZ, ZipArchiveOutputStream zip) {
+            super();
+            this.sevenZ = sevenZ;
+            this.zip = zip;
+            this.stream = zip != null ? zip : new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    sevenZ.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    sevenZ.write(b, off, len);
+                }
+            };
+        }
+
+        private static Writer create(Path archive, ArchiveFormat format) throws IOException {
+            if (format == ArchiveFormat.SEVEN_ZIP) {
+                return new Writer(new SevenZOutputFile(archive.toFile()), null);
+            }
+            return new Writer(null, new ZipArchiveOutputStream(archive));
+        }
+
+        /**
+         * Set the last modification time and unix mode of a new version entry to a zip entry.
+         */
+        private static void metadata(ZipArchiveEntry entry, Operation operation) {
+            if (operation.time() != null) {
+                entry.setLastModifiedTime(operation.time());
+            }
+            if (operation.mode() != 0) {
+                entry.setUnixMode(operation.mode());
+            }
+        }
+
+        private void directory(Operation operation) throws IOException {
+            var name = operation.name();
+            if (this.zip != null) {
+                var entry = new ZipArchiveEntry(name.endsWith("/") ? name : name + "/");
+                metadata(entry, operation);
+                this.zip.putArchiveEntry(entry);
+                this.zip.closeArchiveEntry();
+            } else {
+                var entry = sevenZEntry(operation);
+                entry.setDirectory(true);
+                this.sevenZ.putArchiveEntry(entry);
+                this.sevenZ.closeArchiveEntry();
+            }
+        }
+
+        private void file(String name, Content content) throws IOException {
+            file(new Operation('+', -1, null, 0, name), content);
+        }
+
+        private void file(Operation operation, Content content) throws IOException {
+            if (this.zip != null) {
+                var entry = new ZipArchiveEntry(operation.name());
+                metadata(entry, operation);
+                this.zip.putArchiveEntry(entry);
+                content.write(this.stream);
+                this.zip.closeArchiveEntry();
+            } else {
+                this.sevenZ.putArchiveEntry(sevenZEntry(operation));
+                content.write(this.stream);
+                this.sevenZ.closeArchiveEntry();
+            }
+        }
+
+        /**
+         * Create a 7z entry with the last modification time and unix mode of a new version entry.
+         */
+        private static SevenZArchiveEntry sevenZEntry(Operation operation) {
+            var entry = new SevenZArchiveEntry();
+            entry.setName(operation.name());
+            if (operation.time() != null) {
+                entry.setLastModifiedTime(operation.time());
+            }
+            if (operation.mode() != 0) {
+                entry.setHasWindowsAttributes(true);
+                entry.setWindowsAttributes(0x8000 | (operation.mode() << 16));
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.zip != null) {
+                this.zip.close();
+            } else {
+                this.sevenZ.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics listener aggregating the operations: latency histograms, byte counters, compression ratio and error codes.
+ * Latencies are counted in power of two microsecond buckets, so recording never allocates nor locks.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ArchiveStatistics implements MetricsListener {
+
+    /**
+     * Number of latency buckets, the last one holds every operation longer than 2^62 microseconds.
+     */
+    static final int BUCKETS = 64;
+
+    private final Map<OperationMetrics.Type, Counters> counters = new EnumMap<>(OperationMetrics.Type.class);
+
+    /**
+     * Number of failures by native error code.
+     */
+    private final Map<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public ArchiveStatistics() {
+        super();
+        for (var type : OperationMetrics.Type.values()) {
+            this.counters.put(type, new Counters());
+        }
+    }
+
+    @Override
+    public void onOperation(OperationMetrics metrics) {
+        var c = this.counters.get(metrics.type());
+        c.count.increment();
+        c.latency[bucket(metrics.duration())].increment();
+        if (metrics.bytesIn() > 0) {
+            c.bytesIn.add(metrics.bytesIn());
+        }
+        if (metrics.bytesOut() > 0) {
+            c.bytesOut.add(metrics.bytesOut());
+        }
+        if (!metrics.success()) {
+            c.failures.increment();
+            metrics.errorCode().ifPresent(code -> this.errors.computeIfAbsent(code, k -> new LongAdder()).increment());
+        }
+    }
+
+    /**
+     * @param type Operation type.
+     * @return The number of operations of this type.
+     */
+    public long getCount(OperationMetrics.Type type) {
+        return this.counters.get(type).count.sum();
+    }
+
+    /**
+     * @param type Operation type.
+     * @return The number of failed operations of this type.
+     */
+    public long getFailures(OperationMetrics.Type type) {
+        return this.counters.get(type).failures.sum();
+    }
+
+    /**
+     * @param type Operation type.
+     * @return The total number of bytes read by the operations of this type.
+     */
+    public long getBytesIn(OperationMetrics.Type type) {
+        return this.counters.get(type).bytesIn.sum();
+    }
+
+    /**
+     * @param type Operation type.
+     * @return The total number of bytes written by the operations of this type.
+     */
+    public long getBytesOut(OperationMetrics.Type type) {
+        return this.counters.get(type).bytesOut.sum();
+    }
+
+    /**
+     * @return The overall compressed size divided by the uncompressed size of the pack operations, -1 if nothing was packed.
+     */
+    public double getCompressionRatio() {
+        var in = getBytesIn(OperationMetrics.Type.PACK);
+        return in == 0 ? -1 : (double) getBytesOut(OperationMetrics.Type.PACK) / in;
+    }
+
+    /**
+     * @param errorCode Native error code.
+     * @return The number of failures with this code, the failures without native error code are only counted by getFailures.
+     */
+    public long getErrorCount(int errorCode) {
+        var count = this.errors.get(errorCode);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Provide the latency histogram of an operation type, bucket i counts the operations lasting less than 2^i microseconds,
+     * and at least 2^(i-1) microseconds.
+     *
+     * @param type Operation type.
+     * @return A copy of the histogram counts.
+     */
+    public long[] getLatencyHistogram(OperationMetrics.Type type) {
+        var latency = this.counters.get(type).latency;
+        var result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = latency[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * Provide an upper bound of a latency percentile, with the precision of the histogram buckets.
+     *
+     * @param type Operation type.
+     * @param percentile Percentile, between 0 and 100.
+     * @return The upper bound of the bucket containing the percentile, zero if there was no operation.
+     */
+    public Duration getLatencyPercentile(OperationMetrics.Type type, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        var histogram = getLatencyHistogram(type);
+        var total = 0L;
+        for (var count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        var threshold = Math.ceil(total * percentile / 100);
+        var cumulated = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += histogram[i];
+            if (cumulated >= threshold && cumulated > 0) {
+                return Duration.ofNanos(i >= 53 ? Long.MAX_VALUE : (1L << i) * 1_000);
+            }
+        }
+        return Duration.ofNanos(Long.MAX_VALUE);
+    }
+
+    static int bucket(Duration duration) {
+        var micros = Math.max(0, duration.toNanos() / 1_000);
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static final class Counters {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder bytesIn = new LongAdder();
+
+        private final LongAdder bytesOut = new LongAdder();
+
+        private final LongAdder[] latency = new LongAdder[BUCKETS];
+
+        private Counters() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.latency[i] = new LongAdder();
+            }
+        }
+    }
+}
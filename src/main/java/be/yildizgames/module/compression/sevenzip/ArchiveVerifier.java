@@ -0,0 +1,196 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Verify the integrity of an archive using several threads, the entries are decoded into a discarding sink and checked against their stored size and CRC.
+ * Nothing is written on the file system, the only memory used is the decoders and one buffer per thread.
+ * 7z entries are split at folder boundaries as for the parallel extraction, each range verified by its own worker with its own file handle,
+ * zip entries are verified independently.
+ * A corrupt entry does not stop the verification, the following entries are still checked.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ArchiveVerifier {
+
+    private ArchiveVerifier() {
+        super();
+    }
+
+    /**
+     * Verify all the entries of an archive.
+     *
+     * @param archive Archive to verify.
+     * @param parallelism Threads and memory budget for the decoders.
+     * @return The verification result.
+     * @throws IOException If the archive cannot be opened or its headers cannot be read.
+     */
+    static VerificationReport verify(Path archive, Parallelism parallelism) throws IOException {
+        var start = System.nanoTime();
+        var result = new Result();
+        if (ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP) {
+            verify7z(archive, parallelism, result);
+        } else {
+            verifyZip(archive, parallelism, result);
+        }
+        return new VerificationReport(archive.toString(), result.entries.get(), result.bytes.sum(), List.copyOf(result.corrupt.values()), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void verify7z(Path archive, Parallelism parallelism, Result result) throws IOException {
+        List<SevenZArchiveEntry> entries;
+        long decoderMemory;
+        try (var sevenZFile = ParallelExtractor.open(archive)) {
+            entries = ParallelExtractor.list(sevenZFile);
+            try {
+                decoderMemory = ParallelExtractor.decoderMemory(sevenZFile, entries);
+            } catch (IOException | RuntimeException e) {
+                // The first entry is corrupt, it will be reported by its worker.
+                decoderMemory = ArchiveIO.BUFFER_SIZE;
+            }
+        }
+        var files = new ArrayList<Integer>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (!entries.get(i).isDirectory()) {
+                files.add(i);
+            }
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        var workers = (int) Math.max(1, Math.min(Math.min(parallelism.threads(), files.size()), parallelism.memoryBudget() / decoderMemory));
+        var ranges = ParallelExtractor.split(entries, files, SevenZipFolders.read(archive, entries), workers);
+        try (var executor = Executors.newFixedThreadPool(ranges.size())) {
+            var tasks = new ArrayList<Future<?>>(ranges.size());
+            for (var range : ranges) {
+                tasks.add(executor.submit(() -> {
+                    verify7z(archive, range, result);
+                    return null;
+                }));
+            }
+            ParallelExtractor.awaitAll(tasks);
+        }
+    }
+
+    /**
+     * Verify a range of entries, with a dedicated archive handle, entries are read in the archive order.
+     * The archive is opened again after a corrupt entry, since the decoder state cannot be trusted anymore.
+     */
+    private static void verify7z(Path archive, List<Integer> range, Result result) throws IOException {
+        var buffer = ArchiveIO.buffer();
+        SevenZFile sevenZFile = ParallelExtractor.open(archive);
+        try {
+            var entries = ParallelExtractor.list(sevenZFile);
+            for (var index : range) {
+                var e = entries.get(index);
+                try (var in = sevenZFile.getInputStream(e)) {
+                    result.check(index, e.getName(), in, e.getSize(), e.getHasCrc() ? e.getCrcValue() : -1, buffer);
+                } catch (IOException | RuntimeException ex) {
+                    // Corrupted data make the decoders fail in many ways.
+                    result.corrupt(index, e.getName());
+                    sevenZFile.close();
+                    sevenZFile = ParallelExtractor.open(archive);
+                    entries = ParallelExtractor.list(sevenZFile);
+                }
+            }
+        } finally {
+            sevenZFile.close();
+        }
+    }
+
+    private static void verifyZip(Path archive, Parallelism parallelism, Result result) throws IOException {
+        try (var zip = new ZipFile(archive); var executor = Executors.newFixedThreadPool(parallelism.threads())) {
+            var tasks = new ArrayList<Future<?>>();
+            var entries = Collections.list(zip.getEntriesInPhysicalOrder());
+            for (int i = 0; i < entries.size(); i++) {
+                var e = entries.get(i);
+                if (e.isDirectory()) {
+                    continue;
+                }
+                var index = i;
+                tasks.add(executor.submit(() -> {
+                    try (var in = zip.getInputStream(e)) {
+                        result.check(index, e.getName(), in, e.getSize(), e.getCrc(), ArchiveIO.buffer());
+                    } catch (IOException | RuntimeException ex) {
+                        // Corrupted data make the decoders fail in many ways.
+                        result.corrupt(index, e.getName());
+                    }
+                    return null;
+                }));
+            }
+            ParallelExtractor.awaitAll(tasks);
+        }
+    }
+
+    /**
+     * Verification counters shared by the workers.
+     */
+    private static final class Result {
+
+        private final AtomicInteger entries = new AtomicInteger();
+
+        private final LongAdder bytes = new LongAdder();
+
+        /**
+         * Corrupt entries by index, to report them in the archive order.
+         */
+        private final ConcurrentSkipListMap<Integer, String> corrupt = new ConcurrentSkipListMap<>();
+
+        /**
+         * Decode an entry and compare it with its stored size and CRC.
+         *
+         * @param expectedSize Stored size, -1 if unknown.
+         * @param expectedCrc Stored CRC, -1 if unknown.
+         */
+        private void check(int index, String name, InputStream in, long expectedSize, long expectedCrc, byte[] buffer) throws IOException {
+            var crc = new CRC32();
+            var size = 0L;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+            this.entries.incrementAndGet();
+            this.bytes.add(size);
+            if ((expectedSize >= 0 && size != expectedSize) || (expectedCrc >= 0 && crc.getValue() != expectedCrc)) {
+                this.corrupt.put(index, name);
+            }
+        }
+
+        private void corrupt(int index, String name) {
+            this.entries.incrementAndGet();
+            this.corrupt.put(index, name);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.module.compression.Archiver;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Archiver with the additional operations supported by this module.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ArchiverEngine extends Archiver {
+
+    /**
+     * Unarchive several files from an archive into a directory, the archive is decoded only once.
+     * Requested entries are extracted in their physical order in the archive, whatever the order of the names.
+     *
+     * @param archive The path to the archive file.
+     * @param fileNames The names of the files in the archive.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @throws IllegalArgumentException If the archive is not supported, or if a file is not in the archive.
+     */
+    void unpack(Path archive, Collection<String> fileNames, Path destinationDirectory);
+
+    /**
+     * Unarchive an archive into a directory using several threads.
+     * Independent parts of the archive, 7z folders or zip entries, are decoded on separate threads, each with its own file handle.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @param parallelism Maximum number of threads and memory budget for the decoders.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    void unpack(Path archive, Path destinationDirectory, Parallelism parallelism);
+
+    /**
+     * Compress multiple files into an archive using several threads.
+     * Zip entries are deflated concurrently and then written in the archive, in the source order.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param parallelism Maximum number of threads and memory budget for the compressed data waiting to be written.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    void pack(List<Path> source, Path archive, Parallelism parallelism);
+
+    /**
+     * Compress the files of a directory tree into an archive, the entries are named after their path relative to the directory.
+     * Files are compressed in the order of their entry names.
+     *
+     * @param directory Directory to compress.
+     * @param archive The path to the archive file.
+     * @param filter Filter selecting the files to compress, directories are always walked.
+     * @throws IllegalArgumentException If the archive is not supported, or if the directory does not exist.
+     */
+    void pack(Path directory, Path archive, Predicate<Path> filter);
+
+    /**
+     * Compress multiple files into an archive with the given settings.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings, see CompressionOptions.of for the presets.
+     * @throws IllegalArgumentException If the archive or the settings are not supported.
+     */
+    void pack(List<Path> source, Path archive, CompressionOptions options);
+
+    /**
+     * Compress multiple files into an archive with the given settings, reporting the progress to a listener.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings.
+     * @param listener Listener notified of the progress, it can cancel the operation, null for none.
+     * @throws IllegalArgumentException If the archive or the settings are not supported.
+     * @throws java.util.concurrent.CancellationException If the listener cancelled the operation.
+     */
+    void pack(List<Path> source, Path archive, CompressionOptions options, ProgressListener listener);
+
+    /**
+     * Unarchive an archive into a directory, reporting the progress to a listener.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @param listener Listener notified of the progress, it can cancel the operation, null for none.
+     * @throws IllegalArgumentException If the archive is not supported.
+     * @throws java.util.concurrent.CancellationException If the listener cancelled the operation.
+     */
+    void unpack(Path archive, Path destinationDirectory, ProgressListener listener);
+
+    /**
+     * Compress contents read from streams into an archive written to a stream, nothing is written on the file system.
+     * 7z archives need to seek back to write their header, they are built in memory before being written to the output,
+     * so they need a heap of a few times the archive size, and cannot be larger than 2GB.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param output Stream receiving the archive, it is not closed.
+     * @throws IllegalArgumentException If a 7z archive is larger than 2GB.
+     */
+    void pack(List<EntrySource> sources, ArchiveFormat format, OutputStream output);
+
+    /**
+     * Compress contents read from streams into an archive written to a stream with the given settings, nothing is written on the file system.
+     * 7z archives are built in memory, with the same heap requirement and size limit as without settings.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param options Compression settings, deduplication is not supported as each content is read only once.
+     * @param output Stream receiving the archive, it is not closed.
+     * @throws IllegalArgumentException If the settings are not supported, or if a 7z archive is larger than 2GB.
+     */
+    void pack(List<EntrySource> sources, ArchiveFormat format, CompressionOptions options, OutputStream output);
+
+    /**
+     * Compress contents read from streams into an archive written to a channel, nothing is written on the file system.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param output Channel receiving the archive, it is not closed.
+     */
+    default void pack(List<EntrySource> sources, ArchiveFormat format, WritableByteChannel output) {
+        pack(sources, format, Channels.newOutputStream(output));
+    }
+
+    /**
+     * Unarchive a specific file from an archive into a stream, nothing is written on the file system.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param output Stream receiving the file content, it is not closed.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the archive is not supported, or if the file is not in the archive.
+     */
+    long unpack(Path archive, String fileName, OutputStream output);
+
+    /**
+     * Unarchive a specific file from an archive into a buffer, nothing is written on the file system.
+     * The buffer position is advanced by the number of bytes written.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param destination Buffer receiving the file content, heap or direct.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the archive is not supported, if the file is not in the archive,
+     * or if the buffer remaining space is smaller than the file.
+     */
+    int unpack(Path archive, String fileName, ByteBuffer destination);
+
+    /**
+     * Unarchive an archive read from a channel into a directory.
+     *
+     * @param archive Channel to the archive, for example a MemorySegmentChannel over an archive held in memory, it is not closed.
+     * @param format Archive format.
+     * @param destinationDirectory The directory where the files will be extracted.
+     */
+    void unpack(SeekableByteChannel archive, ArchiveFormat format, Path destinationDirectory);
+
+    /**
+     * Unarchive a specific file from an archive read from a channel into a stream, nothing is written on the file system.
+     *
+     * @param archive Channel to the archive, for example a MemorySegmentChannel over an archive held in memory, it is not closed.
+     * @param format Archive format.
+     * @param fileName The name of the file in the archive.
+     * @param output Stream receiving the file content, it is not closed.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the file is not in the archive.
+     */
+    long unpack(SeekableByteChannel archive, ArchiveFormat format, String fileName, OutputStream output);
+
+    /**
+     * Add, replace or remove entries of an existing zip archive, without compressing again the unchanged entries.
+     * The updated archive is written next to the original one, and replaces it only once completed.
+     *
+     * @param archive The path to the archive file.
+     * @param entries Contents to add, an entry with the same name as an existing one replaces it.
+     * @param removedNames Names of the entries to remove.
+     * @throws IllegalArgumentException If the archive is not a .zip file, or if a removed entry is not in the archive.
+     */
+    void update(Path archive, List<EntrySource> entries, Collection<String> removedNames);
+
+    /**
+     * Verify the integrity of an archive, every entry is decoded and checked against its stored size and CRC, nothing is written on the file system.
+     *
+     * @param archive The path to the archive file.
+     * @param parallelism Maximum number of threads and memory budget for the decoders.
+     * @return The verification result, with the corrupt entries and the throughput.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    VerificationReport verify(Path archive, Parallelism parallelism);
+
+    /**
+     * Verify the integrity of an archive using all the available processors.
+     *
+     * @param archive The path to the archive file.
+     * @return The verification result, with the corrupt entries and the throughput.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    default VerificationReport verify(Path archive) {
+        return verify(archive, Parallelism.available());
+    }
+}
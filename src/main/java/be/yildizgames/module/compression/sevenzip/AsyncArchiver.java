@@ -0,0 +1,157 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run the archiver operations asynchronously on a bounded pool of platform threads.
+ * At most concurrency operations run at once, at most queueCapacity others wait for a thread.
+ * Any operation submitted beyond is not queued, its future fails immediately with a RejectedExecutionException,
+ * so the callers, for example virtual threads handling requests, can shed or retry the load instead of oversubscribing the CPU.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AsyncArchiver implements AutoCloseable {
+
+    /**
+     * Archiver running the operations.
+     */
+    private final ArchiverEngine engine;
+
+    /**
+     * Platform threads running the operations.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Create a new asynchronous archiver.
+     *
+     * @param engine Archiver running the operations.
+     * @param concurrency Maximum number of operations running at once, at least 1.
+     * @param queueCapacity Maximum number of operations waiting for a thread, at least 1.
+     */
+    public AsyncArchiver(ArchiverEngine engine, int concurrency, int queueCapacity) {
+        super();
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1: " + queueCapacity);
+        }
+        this.engine = Objects.requireNonNull(engine);
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("archiver-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Create a new asynchronous archiver running one operation per available processor, with a queue of 4 operations per thread.
+     *
+     * @param engine Archiver running the operations.
+     * @return The created archiver.
+     */
+    public static AsyncArchiver of(ArchiverEngine engine) {
+        var processors = Runtime.getRuntime().availableProcessors();
+        return new AsyncArchiver(engine, processors, processors * 4);
+    }
+
+    /**
+     * Compress multiple files into an archive.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @return A future completed when the archive is written.
+     */
+    public CompletableFuture<Void> pack(List<Path> source, Path archive) {
+        return submit(() -> this.engine.pack(source, archive));
+    }
+
+    /**
+     * Compress multiple files into an archive with the given settings.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings.
+     * @return A future completed when the archive is written.
+     */
+    public CompletableFuture<Void> pack(List<Path> source, Path archive, CompressionOptions options) {
+        return submit(() -> this.engine.pack(source, archive, options));
+    }
+
+    /**
+     * Unarchive an archive into a directory.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @return A future completed when the files are extracted.
+     */
+    public CompletableFuture<Void> unpack(Path archive, Path destinationDirectory) {
+        return submit(() -> this.engine.unpack(archive, destinationDirectory));
+    }
+
+    /**
+     * Unarchive several files from an archive into a directory.
+     *
+     * @param archive The path to the archive file.
+     * @param fileNames The names of the files in the archive.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @return A future completed when the files are extracted.
+     */
+    public CompletableFuture<Void> unpack(Path archive, Collection<String> fileNames, Path destinationDirectory) {
+        return submit(() -> this.engine.unpack(archive, fileNames, destinationDirectory));
+    }
+
+    /**
+     * @return The number of operations waiting for a thread.
+     */
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * @return The approximate number of operations currently running.
+     */
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    /**
+     * Stop accepting operations, and wait for the submitted ones to complete.
+     */
+    @Override
+    public void close() {
+        this.executor.close();
+    }
+
+    private CompletableFuture<Void> submit(Runnable operation) {
+        try {
+            return CompletableFuture.runAsync(operation, this.executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
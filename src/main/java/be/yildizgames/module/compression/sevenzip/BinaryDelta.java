@@ -0,0 +1,332 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary delta between two versions of a content, in the rsync way.
+ * The source is split in blocks indexed by a rolling checksum, the target is streamed through a window sliding one byte at a time,
+ * each window matching a source block is encoded as a copy of that block, the other bytes are inserted literally.
+ * Only the block index and the window are held in memory, the source is read from a seekable channel when a checksum matches.
+ * The block size grows with the source so the index never holds more than MAX_BLOCKS blocks.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BinaryDelta {
+
+    /**
+     * Smallest block size, used for small sources.
+     */
+    static final int MIN_BLOCK_SIZE = 512;
+
+    /**
+     * Maximum number of blocks indexed for a source.
+     */
+    static final int MAX_BLOCKS = 1 << 16;
+
+    private static final int COPY = 1;
+
+    private static final int INSERT = 2;
+
+    private static final int END = 0;
+
+    /**
+     * Maximum size of a literal insertion kept in memory before being written.
+     */
+    private static final int MAX_INSERT = 64 * 1024;
+
+    private BinaryDelta() {
+        super();
+    }
+
+    /**
+     * Compute the delta to rebuild a target from a source.
+     *
+     * @param source Source content, read at random positions.
+     * @param target Target content, read sequentially once.
+     * @param delta Stream receiving the delta, not closed.
+     * @throws IOException If a content cannot be read or the delta written.
+     */
+    static void diff(SeekableByteChannel source, InputStream target, OutputStream delta) throws IOException {
+        var blockSize = blockSize(source.size());
+        var index = index(source, blockSize);
+        var out = new Encoder(new DataOutputStream(delta));
+        var window = new byte[Math.max(ArchiveIO.BUFFER_SIZE, blockSize * 4)];
+        var block = ByteBuffer.allocate(blockSize);
+        var position = 0;
+        var limit = 0;
+        var eof = false;
+        var hash = new RollingHash(blockSize);
+        var hashed = false;
+        while (true) {
+            if (!eof && limit - position <= blockSize) {
+                System.arraycopy(window, position, window, 0, limit - position);
+                limit -= position;
+                position = 0;
+                var read = target.readNBytes(window, limit, window.length - limit);
+                limit += read;
+                eof = limit < window.length;
+            }
+            if (limit - position < blockSize) {
+                out.insert(window, position, limit - position);
+                break;
+            }
+            if (!hashed) {
+                hash.reset(window, position);
+                hashed = true;
+            }
+            var match = find(index.get(hash.value()), source, block, blockSize, window, position);
+            if (match >= 0) {
+                out.copy(match, blockSize);
+                position += blockSize;
+                hashed = false;
+            } else {
+                out.insert(window, position, 1);
+                if (position + blockSize < limit) {
+                    hash.roll(window[position], window[position + blockSize]);
+                } else {
+                    hashed = false;
+                }
+                position++;
+            }
+        }
+        out.end();
+    }
+
+    /**
+     * Rebuild a target from its source and a delta.
+     *
+     * @param source Source content, read at random positions.
+     * @param delta Delta computed by diff.
+     * @param target Stream receiving the target, not closed.
+     * @return The number of bytes written.
+     * @throws IOException If the delta is truncated or the source does not match it.
+     */
+    static long apply(SeekableByteChannel source, InputStream delta, OutputStream target) throws IOException {
+        var in = new DataInputStream(delta);
+        var buffer = ArchiveIO.buffer();
+        var total = 0L;
+        while (true) {
+            var op = in.readUnsignedByte();
+            if (op == END) {
+                return total;
+            }
+            if (op == COPY) {
+                var offset = in.readLong();
+                var length = in.readLong();
+                source.position(offset);
+                var remaining = length;
+                while (remaining > 0) {
+                    var read = source.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, remaining)));
+                    if (read < 0) {
+                        throw new EOFException("Delta copies beyond the end of the source: " + (offset + length));
+                    }
+                    target.write(buffer, 0, read);
+                    remaining -= read;
+                }
+                total += length;
+            } else if (op == INSERT) {
+                var length = in.readInt();
+                var remaining = length;
+                while (remaining > 0) {
+                    var read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new EOFException("Truncated delta");
+                    }
+                    target.write(buffer, 0, read);
+                    remaining -= read;
+                }
+                total += length;
+            } else {
+                throw new IOException("Invalid delta operation: " + op);
+            }
+        }
+    }
+
+    /**
+     * @param sourceSize Size of the source.
+     * @return The block size to use for the source, a power of two.
+     */
+    static int blockSize(long sourceSize) {
+        var size = MIN_BLOCK_SIZE;
+        while ((long) size * MAX_BLOCKS < sourceSize) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Index the full blocks of the source by their rolling checksum.
+     */
+    private static Map<Integer, List<Long>> index(SeekableByteChannel source, int blockSize) throws IOException {
+        var index = new HashMap<Integer, List<Long>>();
+        var block = new byte[blockSize];
+        var hash = new RollingHash(blockSize);
+        source.position(0);
+        for (long offset = 0; offset + blockSize <= source.size(); offset += blockSize) {
+            readFully(source, ByteBuffer.wrap(block), offset);
+            hash.reset(block, 0);
+            index.computeIfAbsent(hash.value(), k -> new ArrayList<>(1)).add(offset);
+        }
+        return index;
+    }
+
+    /**
+     * Find a source block identical to the window, the checksum only selects the candidates.
+     *
+     * @return The matching block offset, -1 if none.
+     */
+    private static long find(List<Long> candidates, SeekableByteChannel source, ByteBuffer block, int blockSize, byte[] window, int position) throws IOException {
+        if (candidates == null) {
+            return -1;
+        }
+        for (var offset : candidates) {
+            block.clear();
+            readFully(source, block, offset);
+            if (Arrays.equals(block.array(), 0, blockSize, window, position, position + blockSize)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private static void readFully(SeekableByteChannel source, ByteBuffer buffer, long offset) throws IOException {
+        source.position(offset);
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of the source at " + source.position());
+            }
+        }
+    }
+
+    /**
+     * Adler like checksum of a window, updated in constant time when the window slides by one byte.
+     */
+    private static final class RollingHash {
+
+        private final int size;
+
+        private int a;
+
+        private int b;
+
+        private RollingHash(int size) {
+            super();
+            this.size = size;
+        }
+
+        private void reset(byte[] data, int offset) {
+            this.a = 0;
+            this.b = 0;
+            for (int i = 0; i < this.size; i++) {
+                var value = data[offset + i] & 0xFF;
+                this.a += value;
+                this.b += (this.size - i) * value;
+            }
+        }
+
+        private void roll(byte out, byte in) {
+            var removed = out & 0xFF;
+            this.a += (in & 0xFF) - removed;
+            this.b += this.a - this.size * removed;
+        }
+
+        private int value() {
+            return (this.b << 16) | (this.a & 0xFFFF);
+        }
+    }
+
+    /**
+     * Write the delta operations, merging contiguous copies and buffering the literal bytes.
+     */
+    private static final class Encoder {
+
+        private final DataOutputStream out;
+
+        private final ByteArrayOutputStream literal = new ByteArrayOutputStream();
+
+        private long copyOffset = -1;
+
+        private long copyLength;
+
+        private Encoder(DataOutputStream out) {
+            super();
+            this.out = out;
+        }
+
+        private void copy(long offset, long length) throws IOException {
+            flushLiteral();
+            if (this.copyOffset >= 0 && this.copyOffset + this.copyLength == offset) {
+                this.copyLength += length;
+            } else {
+                flushCopy();
+                this.copyOffset = offset;
+                this.copyLength = length;
+            }
+        }
+
+        private void insert(byte[] data, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            flushCopy();
+            this.literal.write(data, offset, length);
+            if (this.literal.size() >= MAX_INSERT) {
+                flushLiteral();
+            }
+        }
+
+        private void end() throws IOException {
+            flushCopy();
+            flushLiteral();
+            this.out.writeByte(END);
+            this.out.flush();
+        }
+
+        private void flushCopy() throws IOException {
+            if (this.copyOffset >= 0) {
+                this.out.writeByte(COPY);
+                this.out.writeLong(this.copyOffset);
+                this.out.writeLong(this.copyLength);
+                this.copyOffset = -1;
+            }
+        }
+
+        private void flushLiteral() throws IOException {
+            if (this.literal.size() > 0) {
+                this.out.writeByte(INSERT);
+                this.out.writeInt(this.literal.size());
+                this.literal.writeTo(this.out);
+                this.literal.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Scatter store for parallel zip creation, keeping the compressed data in memory up to a limit, and spilling to a temporary file beyond.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BoundedScatterBackingStore implements ScatterGatherBackingStore {
+
+    /**
+     * Maximum number of bytes kept in memory.
+     */
+    private final long memoryLimit;
+
+    /**
+     * In memory data, null once spilled to a file.
+     */
+    private MemoryBuffer memory = new MemoryBuffer();
+
+    /**
+     * Temporary file, null while the data are in memory.
+     */
+    private Path file;
+
+    private OutputStream fileOutput;
+
+    /**
+     * Create a new store.
+     *
+     * @param memoryLimit Maximum number of bytes kept in memory.
+     */
+    BoundedScatterBackingStore(long memoryLimit) {
+        super();
+        this.memoryLimit = memoryLimit;
+    }
+
+    @Override
+    public void writeOut(byte[] data, int offset, int length) throws IOException {
+        if (this.memory != null && this.memory.size() + (long) length > this.memoryLimit) {
+            this.file = Files.createTempFile("scatter", ".zip");
+            this.fileOutput = Files.newOutputStream(this.file);
+            this.memory.writeTo(this.fileOutput);
+            this.memory = null;
+        }
+        if (this.memory != null) {
+            this.memory.write(data, offset, length);
+        } else {
+            this.fileOutput.write(data, offset, length);
+        }
+    }
+
+    @Override
+    public void closeForWriting() throws IOException {
+        if (this.fileOutput != null) {
+            this.fileOutput.close();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return this.memory != null ? this.memory.toInputStream() : Files.newInputStream(this.file);
+    }
+
+    /**
+     * @return True if the data were spilled to a temporary file.
+     */
+    boolean isSpilled() {
+        return this.file != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeForWriting();
+        this.memory = null;
+        if (this.file != null) {
+            Files.deleteIfExists(this.file);
+        }
+    }
+
+    /**
+     * Byte array stream readable without copying its content.
+     */
+    private static final class MemoryBuffer extends ByteArrayOutputStream {
+
+        private InputStream toInputStream() {
+            return new ByteArrayInputStream(this.buf, 0, this.count);
+        }
+    }
+}
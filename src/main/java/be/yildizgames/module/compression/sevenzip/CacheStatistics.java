@@ -0,0 +1,39 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+/**
+ * Statistics of an archive index cache.
+ *
+ * @param hits Number of lookups answered from the cache.
+ * @param misses Number of lookups that had to read the archive.
+ * @param evictions Number of archives removed to respect the cache capacity.
+ * @param archives Number of archives currently cached.
+ * @param weight Number of entries currently cached, for all archives.
+ *
+ * @author Grégory Van den Borre
+ */
+public record CacheStatistics(long hits, long misses, long evictions, int archives, long weight) {
+
+    /**
+     * @return The ratio of lookups answered from the cache, 0 if no lookup was done.
+     */
+    public double hitRate() {
+        var total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+}
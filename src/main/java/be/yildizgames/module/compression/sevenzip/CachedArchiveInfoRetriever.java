@@ -0,0 +1,72 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.module.compression.FileInfo;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Retriever answering from an archive index cache, the archive is only read on cache misses.
+ *
+ * @author Grégory Van den Borre
+ */
+final class CachedArchiveInfoRetriever implements ArchiveInfoRetriever {
+
+    /**
+     * Normalized archive path, used as cache key.
+     */
+    private final Path path;
+
+    private final ArchiveInfoRetriever delegate;
+
+    private final ArchiveIndexCache cache;
+
+    CachedArchiveInfoRetriever(Path path, ArchiveInfoRetriever delegate, ArchiveIndexCache cache) {
+        super();
+        this.path = path.toAbsolutePath().normalize();
+        this.delegate = Objects.requireNonNull(delegate);
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    @Override
+    public List<FileInfo> getFileInfo(Algorithm... algorithms) {
+        var requested = algorithms == null ? new Algorithm[0] : algorithms;
+        return this.cache.getFileInfo(this.path, requested, () -> this.delegate.getFileInfo(requested));
+    }
+
+    /**
+     * Streams are not cached since they are meant for archives too large to be kept in memory,
+     * a previously cached result is used if available.
+     */
+    @Override
+    public Stream<FileInfo> streamFileInfo(Algorithm... algorithms) {
+        var requested = algorithms == null ? new Algorithm[0] : algorithms;
+        return this.cache.findFileInfo(this.path, requested)
+                .map(List::stream)
+                .orElseGet(() -> this.delegate.streamFileInfo(requested));
+    }
+
+    @Override
+    public List<EntryInfo> getEntryInfo() {
+        return this.cache.getEntryInfo(this.path, this.delegate::getEntryInfo);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.util.Objects;
+
+/**
+ * Settings used to compress an archive.
+ * Zip archives only support deflate, any method other than COPY is written as deflate with the same level.
+ * The java engine writes each file of a 7z archive in its own block with a single threaded encoder,
+ * the number of threads is a hint it only uses to hash the files for deduplication.
+ *
+ * @param method Compression method.
+ * @param level Compression level, from 0 (fastest) to 9 (smallest output).
+ * @param dictionarySize LZMA2 dictionary size in bytes, 0 to use the size defined by the level.
+ * @param threads Number of threads deflating the zip entries and hashing the files for deduplication, at least 1.
+ * @param deduplicate True to compress only once the files with identical contents, the other copies being stored as links to the first one.
+ *
+ * @author Grégory Van den Borre
+ */
+public record CompressionOptions(Method method, int level, int dictionarySize, int threads, boolean deduplicate) {
+
+    /**
+     * Settings used when none are provided, LZMA2 or deflate at level 6 on a single thread.
+     */
+    public static final CompressionOptions DEFAULT = new CompressionOptions(Method.LZMA2, 6, 0, 1);
+
+    public CompressionOptions {
+        Objects.requireNonNull(method);
+        if (level < 0 || level > 9) {
+            throw new IllegalArgumentException("Level must be between 0 and 9: " + level);
+        }
+        if (dictionarySize < 0) {
+            throw new IllegalArgumentException("Dictionary size cannot be negative: " + dictionarySize);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        }
+    }
+
+    /**
+     * Create settings without deduplication.
+     *
+     * @param method Compression method.
+     * @param level Compression level, from 0 (fastest) to 9 (smallest output).
+     * @param dictionarySize LZMA2 dictionary size in bytes, 0 to use the size defined by the level.
+     * @param threads Number of threads deflating the zip entries, at least 1.
+     */
+    public CompressionOptions(Method method, int level, int dictionarySize, int threads) {
+        this(method, level, dictionarySize, threads, false);
+    }
+
+    /**
+     * Provide the settings of a preset.
+     *
+     * @param preset Preset to use.
+     * @return The preset settings.
+     */
+    public static CompressionOptions of(Preset preset) {
+        var processors = Runtime.getRuntime().availableProcessors();
+        return switch (preset) {
+            case STORE -> new CompressionOptions(Method.COPY, 0, 0, processors);
+            case FASTEST -> new CompressionOptions(Method.LZMA2, 1, 0, processors);
+            case NORMAL -> DEFAULT;
+            case MAXIMUM -> new CompressionOptions(Method.LZMA2, 9, 64 * 1024 * 1024, processors);
+        };
+    }
+
+    /**
+     * Create a copy of these settings using another number of threads.
+     *
+     * @param threads Number of threads deflating the zip entries and hashing the files for deduplication, at least 1.
+     * @return The created settings.
+     */
+    public CompressionOptions withThreads(int threads) {
+        return new CompressionOptions(this.method, this.level, this.dictionarySize, threads, this.deduplicate);
+    }
+
+    /**
+     * Create a copy of these settings with or without deduplication.
+     *
+     * @param deduplicate True to compress only once the files with identical contents.
+     * @return The created settings.
+     */
+    public CompressionOptions withDeduplication(boolean deduplicate) {
+        return new CompressionOptions(this.method, this.level, this.dictionarySize, this.threads, deduplicate);
+    }
+
+    /**
+     * Compression methods.
+     */
+    public enum Method {
+
+        /**
+         * No compression, the data are only stored.
+         */
+        COPY,
+
+        DEFLATE,
+
+        BZIP2,
+
+        LZMA2
+    }
+
+    /**
+     * Named settings, trading CPU time against output size.
+     */
+    public enum Preset {
+
+        /**
+         * No compression, all processors used.
+         */
+        STORE,
+
+        /**
+         * Lowest LZMA2 level, all processors used, for frequent builds.
+         */
+        FASTEST,
+
+        /**
+         * Same as the default settings.
+         */
+        NORMAL,
+
+        /**
+         * Highest LZMA2 level with a 64MB dictionary, all processors used, for releases.
+         */
+        MAXIMUM
+    }
+}
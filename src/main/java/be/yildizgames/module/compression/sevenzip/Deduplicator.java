@@ -0,0 +1,383 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.HashingFactory;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.UnrecognizedExtraField;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.archivers.zip.ZipShort;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Find the files with identical contents before packing, so each distinct content is compressed only once.
+ * Files are first grouped by size, only the files sharing their size with another one are hashed, in parallel,
+ * and files with the same hash are compared byte by byte before being considered identical.
+ * Duplicates are stored as symbolic link entries to the first copy, in the unix format understood by unzip and p7zip,
+ * and are restored by this module as hard links to the first copy, or as copies when the file system does not support hard links.
+ * Those links are marked, with the reserved 0x40 windows attribute on 7z and with an extra field on zip,
+ * so symbolic links stored by other tools are not mistaken for duplicates and are read and extracted as they are.
+ * Every read path of this module resolves a marked link to an archived file into the content of that file,
+ * links whose target is not a file of the archive are read as they are.
+ *
+ * @author Grégory Van den Borre
+ */
+final class Deduplicator {
+
+    /**
+     * Unix file type bits of a symbolic link.
+     */
+    static final int UNIX_LINK = 0120000;
+
+    /**
+     * Windows attribute reserved for devices, never set on archived files, marking the 7z links created by the deduplication.
+     */
+    static final int SEVEN_ZIP_LINK_MARKER = 0x40;
+
+    /**
+     * Windows attributes of a 7z link entry created by the deduplication,
+     * the unix mode is stored in the high 16 bits when the 0x8000 extension flag is set.
+     */
+    static final int SEVEN_ZIP_LINK_ATTRIBUTES = 0x8000 | SEVEN_ZIP_LINK_MARKER | ((UNIX_LINK | 0777) << 16);
+
+    /**
+     * Header id of the empty extra field marking the zip links created by the deduplication.
+     */
+    static final ZipShort ZIP_LINK_MARKER = new ZipShort(0x5944);
+
+    /**
+     * Maximum size of a link entry content, longer contents are not considered as paths.
+     */
+    private static final int MAX_LINK_SIZE = 4096;
+
+    private Deduplicator() {
+        super();
+    }
+
+    /**
+     * Find the files having the same content as a previous file of the list.
+     *
+     * @param source Files to compress.
+     * @param threads Number of threads hashing the files.
+     * @return The duplicates, associated to the first file of the list with the same content.
+     * @throws IOException If a file cannot be read.
+     */
+    static Map<Path, Path> findDuplicates(List<Path> source, int threads) throws IOException {
+        var bySize = new LinkedHashMap<Long, List<Path>>();
+        for (var file : source) {
+            var size = Files.size(file);
+            // Empty files have no content to compress.
+            if (size > 0) {
+                bySize.computeIfAbsent(size, k -> new ArrayList<>()).add(file);
+            }
+        }
+        var candidates = bySize.values().stream().filter(l -> l.size() > 1).toList();
+        var result = new LinkedHashMap<Path, Path>();
+        if (candidates.isEmpty()) {
+            return result;
+        }
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            var hashes = new ArrayList<List<Future<ByteBuffer>>>(candidates.size());
+            for (var group : candidates) {
+                var tasks = new ArrayList<Future<ByteBuffer>>(group.size());
+                for (var file : group) {
+                    tasks.add(executor.submit(() -> hash(file)));
+                }
+                hashes.add(tasks);
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                var originals = new HashMap<ByteBuffer, List<Path>>();
+                var group = candidates.get(i);
+                for (int j = 0; j < group.size(); j++) {
+                    var file = group.get(j);
+                    var sameHash = originals.computeIfAbsent(await(hashes.get(i).get(j)), k -> new ArrayList<>());
+                    var original = findIdentical(sameHash, file);
+                    if (original == null) {
+                        sameHash.add(file);
+                    } else {
+                        result.put(file, original);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Provide the content of a link entry, the path of its target relative to the link directory, with / separators.
+     *
+     * @param linkName Name of the link entry.
+     * @param targetName Name of the target entry.
+     * @return The link content.
+     */
+    static String linkContent(String linkName, String targetName) {
+        var parent = Path.of(linkName).getParent();
+        var target = Path.of(targetName);
+        return (parent == null ? target : parent.relativize(target)).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * @param entry 7z entry.
+     * @return True if the entry is a unix symbolic link created by the deduplication.
+     */
+    static boolean isLink(SevenZArchiveEntry entry) {
+        if (!entry.getHasWindowsAttributes()) {
+            return false;
+        }
+        var attributes = entry.getWindowsAttributes();
+        return (attributes & 0x8000) != 0 && (attributes & SEVEN_ZIP_LINK_MARKER) != 0 && ((attributes >>> 16) & 0170000) == UNIX_LINK;
+    }
+
+    /**
+     * @param entry Zip entry.
+     * @return True if the entry is a unix symbolic link created by the deduplication.
+     */
+    static boolean isLink(ZipArchiveEntry entry) {
+        return entry.isUnixSymlink() && entry.getExtraField(ZIP_LINK_MARKER) != null;
+    }
+
+    /**
+     * Create a zip link entry, marked as created by the deduplication.
+     *
+     * @param name Name of the link entry.
+     * @return The created entry, its content is the path of its target.
+     */
+    static ZipArchiveEntry zipLink(String name) {
+        var entry = new ZipArchiveEntry(name);
+        entry.setUnixMode(UnixStat.LINK_FLAG | UnixStat.DEFAULT_LINK_PERM);
+        var marker = new UnrecognizedExtraField();
+        marker.setHeaderId(ZIP_LINK_MARKER);
+        marker.setLocalFileDataData(new byte[0]);
+        marker.setCentralDirectoryData(new byte[0]);
+        entry.addExtraField(marker);
+        return entry;
+    }
+
+    /**
+     * Provide the name of the entry targeted by a link entry.
+     *
+     * @param linkName Name of the link entry.
+     * @param content Content of the link entry, the path of its target relative to the link directory.
+     * @return The target entry name, with / separators, null if the target is outside of the archive.
+     */
+    static String targetName(String linkName, byte[] content) {
+        try {
+            var target = Path.of(new String(content, StandardCharsets.UTF_8));
+            if (target.isAbsolute()) {
+                return null;
+            }
+            var parent = Path.of(linkName).getParent();
+            var resolved = (parent == null ? target : parent.resolve(target)).normalize();
+            if (resolved.toString().isEmpty() || resolved.startsWith("..")) {
+                return null;
+            }
+            return resolved.toString().replace(File.separatorChar, '/');
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Provide the entry holding the content of a 7z entry.
+     * The archive is read with random access, it must not be iterated sequentially at the same time.
+     *
+     * @param sevenZFile Archive to read.
+     * @param entry Entry to resolve.
+     * @return The target of a link entry when it is a file of the archive, the entry itself otherwise.
+     * @throws IOException If the link content cannot be read.
+     */
+    static SevenZArchiveEntry resolve(SevenZFile sevenZFile, SevenZArchiveEntry entry) throws IOException {
+        if (!isLink(entry)) {
+            return entry;
+        }
+        var name = targetName(sevenZFile, entry);
+        for (var e : sevenZFile.getEntries()) {
+            if (e.getName().equals(name) && !e.isDirectory() && !isLink(e)) {
+                return e;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Provide the entry holding the content of a zip entry.
+     *
+     * @param zip Archive to read.
+     * @param entry Entry to resolve.
+     * @return The target of a link entry when it is a file of the archive, the entry itself otherwise.
+     * @throws IOException If the link content cannot be read.
+     */
+    static ZipArchiveEntry resolve(ZipFile zip, ZipArchiveEntry entry) throws IOException {
+        if (!isLink(entry)) {
+            return entry;
+        }
+        var name = targetName(zip, entry);
+        var target = name == null ? null : zip.getEntry(name);
+        return target == null || target.isDirectory() || target.isUnixSymlink() ? entry : target;
+    }
+
+    /**
+     * Resolve all the link entries of a 7z archive, only the link entries are decoded.
+     * The archive is read with random access, it must not be iterated sequentially at the same time.
+     *
+     * @param sevenZFile Archive to read.
+     * @return The entries holding the content of the links, by link name, the links whose target is not a file of the archive are not included.
+     * @throws IOException If a link content cannot be read.
+     */
+    static Map<String, SevenZArchiveEntry> linkTargets(SevenZFile sevenZFile) throws IOException {
+        var result = new HashMap<String, SevenZArchiveEntry>();
+        Map<String, SevenZArchiveEntry> files = null;
+        for (var e : sevenZFile.getEntries()) {
+            if (!isLink(e)) {
+                continue;
+            }
+            if (files == null) {
+                files = new HashMap<>();
+                for (var f : sevenZFile.getEntries()) {
+                    if (!f.isDirectory() && !isLink(f)) {
+                        files.put(f.getName(), f);
+                    }
+                }
+            }
+            var name = targetName(sevenZFile, e);
+            var target = name == null ? null : files.get(name);
+            if (target != null) {
+                result.put(e.getName(), target);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolve all the link entries of a zip archive, only the link entries are inflated.
+     *
+     * @param zip Archive to read.
+     * @return The entries holding the content of the links, by link name, the links whose target is not a file of the archive are not included.
+     * @throws IOException If a link content cannot be read.
+     */
+    static Map<String, ZipArchiveEntry> linkTargets(ZipFile zip) throws IOException {
+        var result = new LinkedHashMap<String, ZipArchiveEntry>();
+        for (var e : Collections.list(zip.getEntries())) {
+            var target = resolve(zip, e);
+            if (target != e) {
+                result.put(e.getName(), target);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restore a link entry, as a hard link to its target if it was already extracted, as a symbolic link otherwise.
+     *
+     * @param destinationDirectory Directory where the entries are extracted.
+     * @param name Name of the link entry.
+     * @param content Content of the link entry, the path of its target.
+     * @throws IOException If the link cannot be created.
+     * @throws IllegalArgumentException If the link or its target is outside of the destination directory, or if the link targets itself.
+     */
+    static void extractLink(Path destinationDirectory, String name, byte[] content) throws IOException {
+        var target = new String(content, StandardCharsets.UTF_8);
+        var link = ArchiveIO.resolve(destinationDirectory, name);
+        var parent = Path.of(name).getParent();
+        var original = ArchiveIO.resolve(destinationDirectory, (parent == null ? Path.of(target) : parent.resolve(target)).toString());
+        if (original.equals(link)) {
+            throw new IllegalArgumentException("Link targets itself: " + name);
+        }
+        Files.createDirectories(link.getParent());
+        Files.deleteIfExists(link);
+        if (Files.isRegularFile(original)) {
+            try {
+                Files.createLink(link, original);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(original, link, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else {
+            Files.createSymbolicLink(link, link.getParent().relativize(original));
+        }
+    }
+
+    private static String targetName(SevenZFile sevenZFile, SevenZArchiveEntry link) throws IOException {
+        if (link.getSize() > MAX_LINK_SIZE) {
+            return null;
+        }
+        try (var in = sevenZFile.getInputStream(link)) {
+            return targetName(link.getName(), in.readAllBytes());
+        }
+    }
+
+    private static String targetName(ZipFile zip, ZipArchiveEntry link) throws IOException {
+        if (link.getSize() > MAX_LINK_SIZE) {
+            return null;
+        }
+        try (var in = zip.getInputStream(link)) {
+            return targetName(link.getName(), in.readAllBytes());
+        }
+    }
+
+    private static ByteBuffer hash(Path file) throws IOException {
+        try (var in = Files.newInputStream(file)) {
+            return ByteBuffer.wrap(HashingFactory.get(Algorithm.CRC32).compute(in, (int) Math.min(Integer.MAX_VALUE, Files.size(file))).getBytes());
+        }
+    }
+
+    private static Path findIdentical(List<Path> candidates, Path file) throws IOException {
+        for (var candidate : candidates) {
+            if (Files.mismatch(candidate, file) == -1) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static ByteBuffer await(Future<ByteBuffer> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
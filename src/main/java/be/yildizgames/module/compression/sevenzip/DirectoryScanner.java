@@ -0,0 +1,129 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Walk a directory tree using several threads, each directory is listed and its files attributes are read by its own task.
+ * Symbolic links are not followed.
+ * The files are sorted by entry name, so the same tree always gives the same archive whatever the order the tasks completed.
+ *
+ * @author Grégory Van den Borre
+ */
+final class DirectoryScanner {
+
+    private DirectoryScanner() {
+        super();
+    }
+
+    /**
+     * Find the regular files of a directory tree.
+     *
+     * @param directory Root of the tree.
+     * @param filter Filter applied to the files, directories are always walked.
+     * @param threads Number of threads walking the tree.
+     * @return The accepted files, sorted by entry name.
+     * @throws IOException If a directory or a file attributes cannot be read.
+     */
+    static List<ScannedFile> scan(Path directory, Predicate<Path> filter, int threads) throws IOException {
+        List<ScannedFile> files;
+        try (var pool = new ForkJoinPool(threads)) {
+            files = pool.invoke(new ScanTask(directory, directory, filter));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        files.sort(Comparator.comparing(ScannedFile::name));
+        return files;
+    }
+
+    /**
+     * Provide the name of a file in the archive, relative to the root and with / separators.
+     *
+     * @param root Root of the tree.
+     * @param file File in the tree.
+     * @return The entry name.
+     */
+    static String entryName(Path root, Path file) {
+        return root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * File found while walking a tree.
+     *
+     * @param path File path.
+     * @param name Entry name in the archive.
+     * @param size File size.
+     */
+    record ScannedFile(Path path, String name, long size) {
+    }
+
+    /**
+     * List a directory, and fork a task for each sub directory.
+     */
+    private static final class ScanTask extends RecursiveTask<List<ScannedFile>> {
+
+        private final Path root;
+
+        private final Path directory;
+
+        private final transient Predicate<Path> filter;
+
+        private ScanTask(Path root, Path directory, Predicate<Path> filter) {
+            super();
+            this.root = root;
+            this.directory = directory;
+            this.filter = filter;
+        }
+
+        @Override
+        protected List<ScannedFile> compute() {
+            var files = new ArrayList<ScannedFile>();
+            var tasks = new ArrayList<ScanTask>();
+            try (var stream = Files.newDirectoryStream(this.directory)) {
+                for (var path : stream) {
+                    var attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        var task = new ScanTask(this.root, path, this.filter);
+                        task.fork();
+                        tasks.add(task);
+                    } else if (attributes.isRegularFile() && this.filter.test(path)) {
+                        files.add(new ScannedFile(path, entryName(this.root, path), attributes.size()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (var task : tasks) {
+                files.addAll(task.join());
+            }
+            return files;
+        }
+    }
+}
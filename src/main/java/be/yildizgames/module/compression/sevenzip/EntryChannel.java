@@ -0,0 +1,348 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.sevenz.SevenZFileOptions;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read only channel over the content of an archive entry, only the requested ranges are read, nothing is written on the file system.
+ * Stored zip entries, and 7z entries stored alone in their folder without compression, are read directly from the archive file at any position.
+ * Compressed entries are decoded lazily, by chunks: reading a range decodes the entry only up to the end of that range,
+ * and the most recently decoded chunks are kept as checkpoints, so reading again or seeking back within them does not decode anything.
+ * Seeking back before the cached chunks restarts the decoder from the entry start, the decoders do not expose any other restart point.
+ * 7z entries written by commons-compress are each in their own folder, so the previous entries of the archive are never decoded.
+ * An instance is not thread safe.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class EntryChannel implements SeekableByteChannel {
+
+    /**
+     * Size of the decoded chunks.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Number of decoded chunks kept in memory.
+     */
+    static final int CACHED_CHUNKS = 32;
+
+    private final Path archive;
+
+    private final String fileName;
+
+    /**
+     * Name of the entry holding the content, the target of a link entry, the entry itself otherwise.
+     */
+    private final String dataName;
+
+    /**
+     * Uncompressed size of the entry.
+     */
+    private final long size;
+
+    /**
+     * Archive file, to read a stored entry directly, null for a compressed entry.
+     */
+    private final FileChannel file;
+
+    /**
+     * Offset of a stored entry data in the archive file.
+     */
+    private final long dataOffset;
+
+    /**
+     * Decoded chunks, by index, the least recently used is evicted first.
+     */
+    private final Map<Long, byte[]> chunks = new LinkedHashMap<>(CACHED_CHUNKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return this.size() > CACHED_CHUNKS;
+        }
+    };
+
+    /**
+     * Archive opened to decode the entry, null until the first decoding.
+     */
+    private Closeable container;
+
+    /**
+     * Decoder of the entry, null until the first decoding.
+     */
+    private InputStream decoder;
+
+    /**
+     * Index of the next chunk produced by the decoder.
+     */
+    private long decoderChunk;
+
+    /**
+     * Number of decoder restarts, for diagnostics.
+     */
+    private int restarts;
+
+    private long position;
+
+    private boolean open = true;
+
+    private EntryChannel(Path archive, String fileName, String dataName, long size, FileChannel file, long dataOffset) {
+        super();
+        this.archive = archive;
+        this.fileName = fileName;
+        this.dataName = dataName;
+        this.size = size;
+        this.file = file;
+        this.dataOffset = dataOffset;
+    }
+
+    /**
+     * Open an entry of an archive, a link entry is resolved to the content of its target.
+     *
+     * @param archive Archive to read.
+     * @param fileName Name of the entry.
+     * @return The channel reading the entry content, to be closed.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if the file is not in the archive.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    public static EntryChannel open(Path archive, String fileName) {
+        try {
+            if (ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP) {
+                try (var sevenZFile = open7z(archive)) {
+                    var entries = ParallelExtractor.list(sevenZFile);
+                    for (var e : entries) {
+                        if (e.getName().equals(fileName) && !e.isDirectory()) {
+                            var data = Deduplicator.resolve(sevenZFile, e);
+                            var index = entries.indexOf(data);
+                            var positions = data.hasStream() && index >= 0 ? SevenZipFolders.storedPositions(archive, entries) : null;
+                            var dataOffset = positions == null ? -1 : positions[index];
+                            if (dataOffset >= 0) {
+                                return new EntryChannel(archive, fileName, data.getName(), data.getSize(), FileChannel.open(archive), dataOffset);
+                            }
+                            return new EntryChannel(archive, fileName, data.getName(), data.getSize(), null, -1);
+                        }
+                    }
+                }
+            } else {
+                try (var zip = new ZipFile(Files.newByteChannel(archive))) {
+                    var entry = zip.getEntry(fileName);
+                    if (entry != null && !entry.isDirectory()) {
+                        var data = Deduplicator.resolve(zip, entry);
+                        if (data.getMethod() == ZipArchiveEntry.STORED && !data.getGeneralPurposeBit().usesEncryption()) {
+                            return new EntryChannel(archive, fileName, data.getName(), data.getSize(), FileChannel.open(archive), data.getDataOffset());
+                        }
+                        return new EntryChannel(archive, fileName, data.getName(), data.getSize(), null, -1);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Open: " + fileName + " in " + archive, e);
+        }
+        throw new IllegalArgumentException("File not found: " + fileName + " in " + archive);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (this.position >= this.size) {
+            return -1;
+        }
+        if (this.file != null) {
+            var length = (int) Math.min(dst.remaining(), this.size - this.position);
+            var read = this.file.read(dst.slice().limit(length), this.dataOffset + this.position);
+            if (read < 0) {
+                throw new EOFException("Truncated entry " + this.fileName + " in " + this.archive);
+            }
+            dst.position(dst.position() + read);
+            this.position += read;
+            return read;
+        }
+        var total = 0;
+        while (dst.hasRemaining() && this.position < this.size) {
+            var index = this.position / CHUNK_SIZE;
+            var chunk = chunk(index);
+            var offset = (int) (this.position - index * CHUNK_SIZE);
+            var length = Math.min(dst.remaining(), chunk.length - offset);
+            dst.put(chunk, offset, length);
+            this.position += length;
+            total += length;
+        }
+        return total;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return this.position;
+    }
+
+    @Override
+    public EntryChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    /**
+     * @return The uncompressed size of the entry.
+     */
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return this.size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.open) {
+            return;
+        }
+        this.open = false;
+        this.chunks.clear();
+        try {
+            closeDecoder();
+        } finally {
+            if (this.file != null) {
+                this.file.close();
+            }
+        }
+    }
+
+    /**
+     * @return True if the entry is read directly from the archive, without decoding.
+     */
+    public boolean isDirect() {
+        return this.file != null;
+    }
+
+    /**
+     * @return The number of times the decoder was restarted from the entry start.
+     */
+    int getRestarts() {
+        return this.restarts;
+    }
+
+    @Override
+    public String toString() {
+        return "EntryChannel[" + this.archive + "!" + this.fileName + ", size=" + this.size + "]";
+    }
+
+    /**
+     * Provide a decoded chunk, from the cache or by decoding the entry up to it.
+     */
+    private byte[] chunk(long index) throws IOException {
+        var chunk = this.chunks.get(index);
+        if (chunk != null) {
+            return chunk;
+        }
+        if (this.decoder == null || this.decoderChunk > index) {
+            restart();
+        }
+        while (this.decoderChunk <= index) {
+            var length = (int) Math.min(CHUNK_SIZE, this.size - this.decoderChunk * CHUNK_SIZE);
+            chunk = new byte[length];
+            if (this.decoder.readNBytes(chunk, 0, length) != length) {
+                throw new EOFException("Truncated entry " + this.fileName + " in " + this.archive);
+            }
+            this.chunks.put(this.decoderChunk, chunk);
+            this.decoderChunk++;
+        }
+        return chunk;
+    }
+
+    private void restart() throws IOException {
+        if (this.decoder != null) {
+            this.restarts++;
+        }
+        closeDecoder();
+        if (ArchiveFormat.of(this.archive) == ArchiveFormat.SEVEN_ZIP) {
+            var sevenZFile = open7z(this.archive);
+            this.container = sevenZFile;
+            for (var e : sevenZFile.getEntries()) {
+                if (e.getName().equals(this.dataName) && !e.isDirectory()) {
+                    this.decoder = sevenZFile.getInputStream(e);
+                    break;
+                }
+            }
+        } else {
+            var zip = new ZipFile(Files.newByteChannel(this.archive));
+            this.container = zip;
+            var entry = zip.getEntry(this.dataName);
+            if (entry != null) {
+                this.decoder = zip.getInputStream(entry);
+            }
+        }
+        if (this.decoder == null) {
+            throw new IOException("Entry removed from the archive: " + this.fileName + " in " + this.archive);
+        }
+        this.decoderChunk = 0;
+    }
+
+    private void closeDecoder() throws IOException {
+        this.decoder = null;
+        if (this.container != null) {
+            var c = this.container;
+            this.container = null;
+            c.close();
+        }
+    }
+
+    private static SevenZFile open7z(Path archive) throws IOException {
+        return new SevenZFile(Files.newByteChannel(archive), archive.toString(), SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build());
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.FileHash;
+import be.yildizgames.module.compression.FileInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compute the file info of archive entries.
+ * CRC32 is taken from the archive headers when available, the entry content is read only once, and only if other algorithms are requested.
+ *
+ * @author Grégory Van den Borre
+ */
+final class EntryHasher implements AutoCloseable {
+
+    /**
+     * Requested algorithms.
+     */
+    private final Algorithm[] algorithms;
+
+    /**
+     * Requested algorithms that cannot be read from the archive headers.
+     */
+    private final Algorithm[] notStored;
+
+    /**
+     * Hasher for the entries having a stored CRC.
+     */
+    private final MultiAlgorithmHasher hasher;
+
+    /**
+     * Hasher for the entries without stored CRC.
+     */
+    private final MultiAlgorithmHasher fullHasher;
+
+    EntryHasher(Algorithm... algorithms) {
+        super();
+        this.algorithms = algorithms == null ? new Algorithm[0] : algorithms;
+        this.notStored = StoredCrc.notStored(this.algorithms);
+        this.hasher = new MultiAlgorithmHasher(this.notStored);
+        this.fullHasher = new MultiAlgorithmHasher(this.algorithms);
+    }
+
+    /**
+     * @return True if the hashes are all read from the archive headers, no entry content needs to be read.
+     */
+    boolean isHeaderOnly() {
+        return this.notStored.length == 0;
+    }
+
+    /**
+     * Compute the info of an entry.
+     *
+     * @param name Entry name.
+     * @param storedCrc CRC32 stored in the archive, -1 if none.
+     * @param content Entry content, only read if needed.
+     * @return The entry info, with the hashes in the requested algorithm order.
+     * @throws IllegalStateException If the content cannot be read.
+     */
+    FileInfo compute(String name, long storedCrc, Content content) {
+        try {
+            if (this.algorithms.length == 0) {
+                return new FileInfo(name, List.of());
+            }
+            if (storedCrc == -1) {
+                return new FileInfo(name, content.hash(this.fullHasher));
+            }
+            var computed = isHeaderOnly() ? List.<FileHash>of() : content.hash(this.hasher);
+            return new FileInfo(name, StoredCrc.combine(this.algorithms, storedCrc, computed));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.hasher.close();
+        this.fullHasher.close();
+    }
+
+    /**
+     * Access to an entry content.
+     */
+    @FunctionalInterface
+    interface Content {
+
+        /**
+         * Read the entry content to compute its hashes.
+         *
+         * @param hasher Hasher to use.
+         * @return The computed hashes.
+         * @throws IOException If the content cannot be read.
+         */
+        List<FileHash> hash(MultiAlgorithmHasher hasher) throws IOException;
+    }
+}
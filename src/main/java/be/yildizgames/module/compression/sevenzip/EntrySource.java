@@ -0,0 +1,88 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Content to add in an archive, read from a stream instead of a file.
+ *
+ * @param name Name of the entry in the archive.
+ * @param content Provide the content, called once when the entry is written.
+ *
+ * @author Grégory Van den Borre
+ */
+public record EntrySource(String name, Content content) {
+
+    public EntrySource {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(content);
+    }
+
+    /**
+     * Create a source from a stream, the stream is closed once the entry is written.
+     *
+     * @param name Name of the entry in the archive.
+     * @param stream Stream providing the content.
+     * @return The created source.
+     */
+    public static EntrySource of(String name, InputStream stream) {
+        return new EntrySource(name, () -> stream);
+    }
+
+    /**
+     * Create a source from a file, named after the file name, the file is opened only when the entry is written.
+     *
+     * @param file File providing the content.
+     * @return The created source.
+     */
+    public static EntrySource of(Path file) {
+        return new EntrySource(file.getFileName().toString(), () -> Files.newInputStream(file));
+    }
+
+    /**
+     * Create a source from a channel, the channel is closed once the entry is written.
+     *
+     * @param name Name of the entry in the archive.
+     * @param channel Channel providing the content.
+     * @return The created source.
+     */
+    public static EntrySource of(String name, ReadableByteChannel channel) {
+        return new EntrySource(name, () -> Channels.newInputStream(channel));
+    }
+
+    /**
+     * Provide an entry content.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Open the content, the returned stream is closed by the caller.
+         *
+         * @return The stream to read.
+         * @throws IOException If the content cannot be opened.
+         */
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.module.compression.FileInfo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+/**
+ * Retriever measuring the info reads of another one, each read is reported to a metrics listener and emitted as a flight recorder event.
+ *
+ * @author Grégory Van den Borre
+ */
+final class InstrumentedArchiveInfoRetriever implements ArchiveInfoRetriever {
+
+    private final Path archive;
+
+    private final ArchiveInfoRetriever delegate;
+
+    private final MetricsListener listener;
+
+    InstrumentedArchiveInfoRetriever(Path archive, ArchiveInfoRetriever delegate, MetricsListener listener) {
+        super();
+        this.archive = archive;
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public List<FileInfo> getFileInfo(Algorithm... algorithms) {
+        return InstrumentedArchiver.measure(this.listener, OperationMetrics.Type.READ_INFO, this.archive.toString(), this::size, () -> this.delegate.getFileInfo(algorithms), () -> -1);
+    }
+
+    /**
+     * The measure covers the stream consumption, it is reported when the stream is closed.
+     */
+    @Override
+    public Stream<FileInfo> streamFileInfo(Algorithm... algorithms) {
+        var size = size();
+        var event = new ArchiveOperationEvent();
+        event.begin();
+        var start = System.nanoTime();
+        return this.delegate.streamFileInfo(algorithms).onClose(() -> {
+            var metrics = new OperationMetrics(OperationMetrics.Type.READ_INFO, this.archive.toString(), Duration.ofNanos(System.nanoTime() - start), size, -1, true, OptionalInt.empty());
+            event.complete(metrics);
+            this.listener.onOperation(metrics);
+        });
+    }
+
+    @Override
+    public List<EntryInfo> getEntryInfo() {
+        return InstrumentedArchiver.measure(this.listener, OperationMetrics.Type.READ_INFO, this.archive.toString(), this::size, this.delegate::getEntryInfo, () -> -1);
+    }
+
+    private long size() {
+        try {
+            return Files.size(this.archive);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Archiver measuring the operations of another one, each operation is reported to a metrics listener and emitted as a flight recorder event.
+ * The measures cost some file size reads per operation, the archivers not wrapped by this class are not measured at all.
+ * Unpacked sizes are read from the archive index once the operation is completed.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class InstrumentedArchiver implements ArchiverEngine {
+
+    private final ArchiverEngine delegate;
+
+    private final MetricsListener listener;
+
+    /**
+     * Create a new instance.
+     *
+     * @param delegate Archiver running the operations.
+     * @param listener Listener receiving the measures.
+     */
+    public InstrumentedArchiver(ArchiverEngine delegate, MetricsListener listener) {
+        super();
+        this.delegate = Objects.requireNonNull(delegate);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    @Override
+    public void pack(List<Path> source, Path archive) {
+        packFiles(source, archive, () -> this.delegate.pack(source, archive));
+    }
+
+    @Override
+    public void pack(Path source, Path archive) {
+        packFiles(List.of(source), archive, () -> this.delegate.pack(source, archive));
+    }
+
+    @Override
+    public void pack(List<Path> source, Path archive, Parallelism parallelism) {
+        packFiles(source, archive, () -> this.delegate.pack(source, archive, parallelism));
+    }
+
+    @Override
+    public void pack(Path directory, Path archive, Predicate<Path> filter) {
+        measure(OperationMetrics.Type.PACK, archive.toString(), () -> -1, () -> {
+            this.delegate.pack(directory, archive, filter);
+            return null;
+        }, () -> size(archive));
+    }
+
+    @Override
+    public void pack(List<Path> source, Path archive, CompressionOptions options) {
+        packFiles(source, archive, () -> this.delegate.pack(source, archive, options));
+    }
+
+    @Override
+    public void pack(List<Path> source, Path archive, CompressionOptions options, ProgressListener progress) {
+        packFiles(source, archive, () -> this.delegate.pack(source, archive, options, progress));
+    }
+
+    @Override
+    public void pack(List<EntrySource> sources, ArchiveFormat format, OutputStream output) {
+        measure(OperationMetrics.Type.PACK, format + " stream", () -> -1, () -> {
+            this.delegate.pack(sources, format, output);
+            return null;
+        }, () -> -1);
+    }
+
+    @Override
+    public void pack(List<EntrySource> sources, ArchiveFormat format, CompressionOptions options, OutputStream output) {
+        measure(OperationMetrics.Type.PACK, format + " stream", () -> -1, () -> {
+            this.delegate.pack(sources, format, options, output);
+            return null;
+        }, () -> -1);
+    }
+
+    @Override
+    public void unpack(Path archive, String fileName, Path destinationDirectory) {
+        unpackFiles(archive, List.of(fileName), () -> this.delegate.unpack(archive, fileName, destinationDirectory));
+    }
+
+    @Override
+    public void unpack(Path archive, Path destinationDirectory) {
+        unpackFiles(archive, null, () -> this.delegate.unpack(archive, destinationDirectory));
+    }
+
+    @Override
+    public void unpack(Path archive, Collection<String> fileNames, Path destinationDirectory) {
+        unpackFiles(archive, fileNames, () -> this.delegate.unpack(archive, fileNames, destinationDirectory));
+    }
+
+    @Override
+    public void unpack(Path archive, Path destinationDirectory, Parallelism parallelism) {
+        unpackFiles(archive, null, () -> this.delegate.unpack(archive, destinationDirectory, parallelism));
+    }
+
+    @Override
+    public void unpack(Path archive, Path destinationDirectory, ProgressListener progress) {
+        unpackFiles(archive, null, () -> this.delegate.unpack(archive, destinationDirectory, progress));
+    }
+
+    @Override
+    public long unpack(Path archive, String fileName, OutputStream output) {
+        var written = new long[]{-1};
+        measure(OperationMetrics.Type.UNPACK, archive.toString(), () -> size(archive), () -> {
+            written[0] = this.delegate.unpack(archive, fileName, output);
+            return null;
+        }, () -> written[0]);
+        return written[0];
+    }
+
+    @Override
+    public int unpack(Path archive, String fileName, ByteBuffer destination) {
+        var written = new int[]{-1};
+        measure(OperationMetrics.Type.UNPACK, archive.toString(), () -> size(archive), () -> {
+            written[0] = this.delegate.unpack(archive, fileName, destination);
+            return null;
+        }, () -> written[0]);
+        return written[0];
+    }
+
+    @Override
+    public void unpack(SeekableByteChannel archive, ArchiveFormat format, Path destinationDirectory) {
+        measure(OperationMetrics.Type.UNPACK, archive.toString(), () -> size(archive), () -> {
+            this.delegate.unpack(archive, format, destinationDirectory);
+            return null;
+        }, () -> -1);
+    }
+
+    @Override
+    public long unpack(SeekableByteChannel archive, ArchiveFormat format, String fileName, OutputStream output) {
+        var written = new long[]{-1};
+        measure(OperationMetrics.Type.UNPACK, archive.toString(), () -> size(archive), () -> {
+            written[0] = this.delegate.unpack(archive, format, fileName, output);
+            return null;
+        }, () -> written[0]);
+        return written[0];
+    }
+
+    @Override
+    public void update(Path archive, List<EntrySource> entries, Collection<String> removedNames) {
+        measure(OperationMetrics.Type.UPDATE, archive.toString(), () -> size(archive), () -> {
+            this.delegate.update(archive, entries, removedNames);
+            return null;
+        }, () -> size(archive));
+    }
+
+    @Override
+    public VerificationReport verify(Path archive, Parallelism parallelism) {
+        return measure(OperationMetrics.Type.VERIFY, archive.toString(), () -> size(archive), () -> this.delegate.verify(archive, parallelism), () -> -1);
+    }
+
+    private void packFiles(List<Path> source, Path archive, Runnable operation) {
+        measure(OperationMetrics.Type.PACK, archive.toString(), () -> size(source), () -> {
+            operation.run();
+            return null;
+        }, () -> size(archive));
+    }
+
+    private void unpackFiles(Path archive, Collection<String> fileNames, Runnable operation) {
+        measure(OperationMetrics.Type.UNPACK, archive.toString(), () -> size(archive), () -> {
+            operation.run();
+            return null;
+        }, () -> uncompressedSize(archive, fileNames));
+    }
+
+    /**
+     * Run an operation, and report its measures whatever its outcome.
+     *
+     * @param type Operation type.
+     * @param archive Archive description.
+     * @param bytesIn Provide the number of bytes read, called before the operation.
+     * @param operation Operation to run.
+     * @param bytesOut Provide the number of bytes written, called only if the operation succeeded.
+     * @return The operation result.
+     */
+    private <T> T measure(OperationMetrics.Type type, String archive, LongSupplier bytesIn, Supplier<T> operation, LongSupplier bytesOut) {
+        return measure(this.listener, type, archive, bytesIn, operation, bytesOut);
+    }
+
+    /**
+     * Run an operation, and report its measures whatever its outcome.
+     *
+     * @param listener Listener receiving the measures.
+     * @param type Operation type.
+     * @param archive Archive description.
+     * @param bytesIn Provide the number of bytes read, called before the operation.
+     * @param operation Operation to run.
+     * @param bytesOut Provide the number of bytes written, called only if the operation succeeded.
+     * @return The operation result.
+     */
+    static <T> T measure(MetricsListener listener, OperationMetrics.Type type, String archive, LongSupplier bytesIn, Supplier<T> operation, LongSupplier bytesOut) {
+        var in = bytesIn.getAsLong();
+        var event = new ArchiveOperationEvent();
+        event.begin();
+        var start = System.nanoTime();
+        var success = false;
+        var errorCode = OptionalInt.empty();
+        try {
+            var result = operation.get();
+            success = true;
+            return result;
+        } catch (ArchiveOperationException e) {
+            errorCode = e.getErrorCode();
+            throw e;
+        } finally {
+            var duration = Duration.ofNanos(System.nanoTime() - start);
+            var metrics = new OperationMetrics(type, archive, duration, in, success ? bytesOut.getAsLong() : -1, success, errorCode);
+            event.complete(metrics);
+            listener.onOperation(metrics);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long size(SeekableByteChannel channel) {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long size(List<Path> files) {
+        var total = 0L;
+        for (var file : files) {
+            var size = size(file);
+            if (size < 0) {
+                return -1;
+            }
+            total += size;
+        }
+        return total;
+    }
+
+    /**
+     * Read the uncompressed size of entries from the archive index.
+     *
+     * @param archive Archive to read.
+     * @param fileNames Names of the entries, null for all.
+     * @return The total uncompressed size, -1 if it cannot be read.
+     */
+    private static long uncompressedSize(Path archive, Collection<String> fileNames) {
+        try {
+            var retriever = ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP ? new SevenZipFileInfoRetriever(archive) : new ZipFileInfoRetriever(archive);
+            var total = 0L;
+            for (var entry : retriever.getEntryInfo()) {
+                if (fileNames == null || fileNames.contains(entry.name())) {
+                    total += Math.max(0, entry.size());
+                }
+            }
+            return total;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,999 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.sevenz.SevenZFileOptions;
+import org.apache.commons.compress.archivers.sevenz.SevenZMethod;
+import org.apache.commons.compress.archivers.sevenz.SevenZMethodConfiguration;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.UnsupportedOptionsException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Pure java implementation of the archiver, based on commons-compress and xz, it does not require any native library.
+ * 7z archives are compressed with LZMA2, zip archives with deflate.
+ * Data are streamed through a large buffer, reused for every entry processed by the same thread.
+ *
+ * @author Grégory Van den Borre
+ */
+public class JavaSevenZipArchiver implements ArchiverEngine {
+
+    /**
+     * Maximum size of a 7z archive built in memory to be written to a stream, the size of the largest byte array.
+     */
+    private static final int MAX_IN_MEMORY_SIZE = Integer.MAX_VALUE - 8;
+
+    public JavaSevenZipArchiver() {
+        super();
+    }
+
+    /**
+     * Compress multiple files into an archive.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public final void pack(List<Path> source, Path archive) {
+        pack(source, archive, CompressionOptions.DEFAULT);
+    }
+
+    /**
+     * Compress multiple files into an archive with the given settings.
+     * Zip entries are deflated on the requested number of threads, 7z archives are always compressed sequentially,
+     * the number of threads is then only used to hash the files for deduplication.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if the settings are not supported.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void pack(List<Path> source, Path archive, CompressionOptions options) {
+        pack(source, archive, options, null);
+    }
+
+    /**
+     * Compress multiple files into an archive with the given settings, reporting the progress to a listener.
+     * If the listener cancels the operation, the partially written archive is deleted.
+     * With deduplication, the files are hashed on the requested number of threads before being compressed,
+     * and the copies of an already compressed content are stored as marked symbolic link entries to the first copy.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings.
+     * @param listener Listener notified of the progress, null for none.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if the settings are not supported.
+     * @throws IllegalStateException If an IO error occurs.
+     * @throws CancellationException If the listener cancelled the operation.
+     */
+    @Override
+    public void pack(List<Path> source, Path archive, CompressionOptions options, ProgressListener listener) {
+        var progress = ProgressTracker.of(listener);
+        var duplicates = options.deduplicate() ? findDuplicates(source, archive, options) : Map.<Path, Path>of();
+        if (listener != null) {
+            progress.start(totalSize(source.stream().filter(f -> !duplicates.containsKey(f)).toList()));
+        }
+        try {
+            if(archive.toString().endsWith(".7z")) {
+                pack7Z(source, null, duplicates, archive, options, progress);
+            } else if(archive.toString().endsWith(".zip")) {
+                if (options.threads() == 1) {
+                    packZip(source, null, duplicates, archive, options, progress);
+                } else {
+                    packZip(source, null, duplicates, archive, Parallelism.of(options.threads()), options, progress);
+                }
+            } else {
+                throw new IllegalArgumentException("Only .7z or .zip archives are supported");
+            }
+        } catch (CancellationException e) {
+            try {
+                Files.deleteIfExists(archive);
+            } catch (IOException ioe) {
+                e.addSuppressed(ioe);
+            }
+            throw e;
+        }
+        progress.complete();
+    }
+
+    /**
+     * Compress the files of a directory tree into an archive, the entries are named after their path relative to the directory.
+     * The tree is walked on all available processors, and the files are compressed in the order of their entry names.
+     * Empty directories are not stored.
+     *
+     * @param directory Directory to compress.
+     * @param archive The path to the archive file, it is excluded from the compressed files if it is in the directory.
+     * @param filter Filter selecting the files to compress, directories are always walked.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if the directory does not exist.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void pack(Path directory, Path archive, Predicate<Path> filter) {
+        var format = ArchiveFormat.of(archive);
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Directory not found: " + directory);
+        }
+        var target = archive.toAbsolutePath().normalize();
+        List<Path> source;
+        try {
+            source = DirectoryScanner.scan(directory, p -> !p.toAbsolutePath().normalize().equals(target) && filter.test(p), Parallelism.available().threads())
+                    .stream()
+                    .map(DirectoryScanner.ScannedFile::path)
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Archive directory: " + directory + " to " + archive, e);
+        }
+        if (format == ArchiveFormat.SEVEN_ZIP) {
+            pack7Z(source, directory, Map.of(), archive, CompressionOptions.DEFAULT, ProgressTracker.NONE);
+        } else {
+            packZip(source, directory, Map.of(), archive, CompressionOptions.DEFAULT, ProgressTracker.NONE);
+        }
+    }
+
+    /**
+     * Compress a single file into an archive.
+     *
+     * @param source The path to the file to compress.
+     * @param archive The path to the archive file.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public final void pack(Path source, Path archive) {
+        pack(List.of(source), archive);
+    }
+
+    /**
+     * Unarchive a specific file from an archive into a directory.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param destinationDirectory The directory where the file will be extracted.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if the file is not in the archive.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void unpack(Path archive, String fileName, Path destinationDirectory) {
+        unpack(archive, Set.of(fileName), destinationDirectory);
+    }
+
+    /**
+     * Unarchive several files from an archive into a directory, the archive is decoded only once.
+     * For 7z, the entries are extracted in a single sequential decode of the solid folders, folders without requested entries are skipped.
+     * For zip, the entries are extracted in their local header order.
+     *
+     * @param archive The path to the archive file.
+     * @param fileNames The names of the files in the archive.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if a file is not in the archive.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void unpack(Path archive, Collection<String> fileNames, Path destinationDirectory) {
+        var names = Set.copyOf(fileNames);
+        if(archive.toString().endsWith(".7z")) {
+            unarchive7z(ArchiveIO.source(archive), archive.toString(), names, destinationDirectory, ProgressTracker.NONE);
+        } else if(archive.toString().endsWith(".zip")) {
+            unarchiveZip(ArchiveIO.source(archive), archive.toString(), names, destinationDirectory, ProgressTracker.NONE);
+        } else {
+            throw new IllegalArgumentException("Only .7z or .zip archives are supported");
+        }
+    }
+
+    /**
+     * Unarchive an archive into a directory.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void unpack(Path archive, Path destinationDirectory) {
+        if(archive.toString().endsWith(".7z")) {
+            unarchive7z(ArchiveIO.source(archive), archive.toString(), null, destinationDirectory, ProgressTracker.NONE);
+        } else if(archive.toString().endsWith(".zip")) {
+            unarchiveZip(ArchiveIO.source(archive), archive.toString(), null, destinationDirectory, ProgressTracker.NONE);
+        } else {
+            throw new IllegalArgumentException("Only .7z or .zip archives are supported");
+        }
+    }
+
+    /**
+     * Unarchive an archive read from a channel into a directory.
+     *
+     * @param archive Channel to the archive, for example a MemorySegmentChannel over an archive held in memory, it is not closed.
+     * @param format Archive format.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void unpack(SeekableByteChannel archive, ArchiveFormat format, Path destinationDirectory) {
+        if (format == ArchiveFormat.SEVEN_ZIP) {
+            unarchive7z(ArchiveIO.source(archive), archive.toString(), null, destinationDirectory, ProgressTracker.NONE);
+        } else {
+            unarchiveZip(ArchiveIO.source(archive), archive.toString(), null, destinationDirectory, ProgressTracker.NONE);
+        }
+    }
+
+    /**
+     * Unarchive a specific file from an archive read from a channel into a stream, nothing is written on the file system.
+     *
+     * @param archive Channel to the archive, for example a MemorySegmentChannel over an archive held in memory, it is not closed.
+     * @param format Archive format.
+     * @param fileName The name of the file in the archive.
+     * @param output Stream receiving the file content, it is not closed.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the file is not in the archive.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public long unpack(SeekableByteChannel archive, ArchiveFormat format, String fileName, OutputStream output) {
+        return extract(ArchiveIO.source(archive), archive.toString(), format, fileName, -1, output);
+    }
+
+    /**
+     * Compress multiple files into an archive using several threads.
+     * Zip entries are deflated concurrently, each thread keeps its compressed entries in memory within its share of the budget,
+     * and spills them to a temporary file beyond.
+     * The xz LZMA2 encoder is single threaded, so 7z archives are compressed sequentially.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param parallelism Maximum number of threads and memory budget for the compressed data waiting to be written.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void pack(List<Path> source, Path archive, Parallelism parallelism) {
+        if (parallelism.isSequential() || !archive.toString().endsWith(".zip")) {
+            pack(source, archive);
+        } else {
+            packZip(source, null, Map.of(), archive, parallelism, CompressionOptions.DEFAULT, ProgressTracker.NONE);
+        }
+    }
+
+    /**
+     * Unarchive an archive into a directory, reporting the progress to a listener.
+     * If the listener cancels the operation, the files already extracted are left in the directory.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @param listener Listener notified of the progress, null for none.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     * @throws CancellationException If the listener cancelled the operation.
+     */
+    @Override
+    public void unpack(Path archive, Path destinationDirectory, ProgressListener listener) {
+        var progress = ProgressTracker.of(listener);
+        if(archive.toString().endsWith(".7z")) {
+            unarchive7z(ArchiveIO.source(archive), archive.toString(), null, destinationDirectory, progress);
+        } else if(archive.toString().endsWith(".zip")) {
+            unarchiveZip(ArchiveIO.source(archive), archive.toString(), null, destinationDirectory, progress);
+        } else {
+            throw new IllegalArgumentException("Only .7z or .zip archives are supported");
+        }
+        progress.complete();
+    }
+
+    /**
+     * Unarchive an archive into a directory using several threads.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @param parallelism Maximum number of threads and memory budget for the decoders.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void unpack(Path archive, Path destinationDirectory, Parallelism parallelism) {
+        if (parallelism.isSequential()) {
+            unpack(archive, destinationDirectory);
+            return;
+        }
+        try {
+            if(archive.toString().endsWith(".7z")) {
+                ParallelExtractor.unarchive7z(archive, destinationDirectory, parallelism);
+            } else if(archive.toString().endsWith(".zip")) {
+                ParallelExtractor.unarchiveZip(archive, destinationDirectory, parallelism);
+            } else {
+                throw new IllegalArgumentException("Only .7z or .zip archives are supported");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unarchive: " + archive + " to " + destinationDirectory, e);
+        }
+    }
+
+    /**
+     * Compress contents read from streams into an archive written to a stream, nothing is written on the file system.
+     * 7z archives need to seek back to write their header, they are built in memory before being written to the output.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param output Stream receiving the archive, it is not closed.
+     * @throws IllegalArgumentException If a 7z archive is larger than 2GB.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void pack(List<EntrySource> sources, ArchiveFormat format, OutputStream output) {
+        pack(sources, format, CompressionOptions.DEFAULT, output);
+    }
+
+    /**
+     * Compress contents read from streams into an archive written to a stream with the given settings, nothing is written on the file system.
+     * 7z archives need to seek back to write their header, they are built in memory before being written to the output,
+     * and fail as soon as they grow larger than 2GB.
+     * Zip entries are written sequentially, the COPY method stores them as deflate blocks at level 0,
+     * a stored zip entry needing its size and CRC before its content.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param options Compression settings, the number of threads is ignored, the contents are only read once so they cannot be deduplicated.
+     * @param output Stream receiving the archive, it is not closed.
+     * @throws IllegalArgumentException If deduplication is requested, or if a 7z archive is larger than 2GB.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void pack(List<EntrySource> sources, ArchiveFormat format, CompressionOptions options, OutputStream output) {
+        if (options.deduplicate()) {
+            throw new IllegalArgumentException("Stream contents cannot be deduplicated: " + options);
+        }
+        var buffer = ArchiveIO.buffer();
+        try {
+            if (format == ArchiveFormat.SEVEN_ZIP) {
+                var channel = new SeekableInMemoryByteChannel() {
+                    @Override
+                    public int write(ByteBuffer b) throws IOException {
+                        if (this.position() + b.remaining() > MAX_IN_MEMORY_SIZE) {
+                            throw new IllegalArgumentException("7z archive larger than " + MAX_IN_MEMORY_SIZE + " bytes, it cannot be built in memory, pack it to a file instead");
+                        }
+                        return super.write(b);
+                    }
+                };
+                try (var out = new SevenZOutputFile(channel)) {
+                    out.setContentMethods(contentMethods(options));
+                    for (var source : sources) {
+                        var entry = new SevenZArchiveEntry();
+                        entry.setName(source.name());
+                        out.putArchiveEntry(entry);
+                        try (var in = source.content().open()) {
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                out.write(buffer, 0, read);
+                            }
+                        }
+                        out.closeArchiveEntry();
+                    }
+                }
+                output.write(channel.array(), 0, (int) channel.size());
+            } else {
+                // Closing the zip stream releases its deflater, the caller output must stay open.
+                var shield = new FilterOutputStream(output) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        this.out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        this.flush();
+                    }
+                };
+                try (var out = new ZipArchiveOutputStream(shield)) {
+                    out.setLevel(options.method() == CompressionOptions.Method.COPY ? 0 : options.level());
+                    for (var source : sources) {
+                        out.putArchiveEntry(new ZipArchiveEntry(source.name()));
+                        try (var in = source.content().open()) {
+                            ArchiveIO.copy(in, out, buffer);
+                        }
+                        out.closeArchiveEntry();
+                    }
+                }
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Archive multiple file: " + sources.stream().map(EntrySource::name).toList() + " to stream", e);
+        }
+    }
+
+    /**
+     * Unarchive a specific file from an archive into a stream, nothing is written on the file system.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param output Stream receiving the file content, it is not closed.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, or if the file is not in the archive.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public long unpack(Path archive, String fileName, OutputStream output) {
+        return extract(ArchiveIO.source(archive), archive.toString(), ArchiveFormat.of(archive), fileName, -1, output);
+    }
+
+    /**
+     * Unarchive a specific file from an archive into a buffer, nothing is written on the file system.
+     * The buffer position is advanced by the number of bytes written.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param destination Buffer receiving the file content, heap or direct.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file, if the file is not in the archive,
+     * or if the buffer remaining space is smaller than the file.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public int unpack(Path archive, String fileName, ByteBuffer destination) {
+        var output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                destination.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                destination.put(b, off, len);
+            }
+        };
+        return (int) extract(ArchiveIO.source(archive), archive.toString(), ArchiveFormat.of(archive), fileName, destination.remaining(), output);
+    }
+
+    /**
+     * Add, replace or remove entries of an existing zip archive.
+     * The unchanged entries are copied raw, without being inflated nor deflated again,
+     * so the cost of an update is the copy of the archive and the compression of the new contents.
+     * Links to a removed or replaced entry are stored as regular entries holding the content they were linked to.
+     * 7z archives are not supported: commons-compress can neither copy the packed streams of a folder nor write a pre-encoded folder,
+     * so a 7z update would decode and encode the whole archive again.
+     * The updated archive is written to a temporary file in the archive directory, which replaces the archive once completed.
+     *
+     * @param archive The path to the archive file.
+     * @param entries Contents to add, an entry with the same name as an existing one replaces it.
+     * @param removedNames Names of the entries to remove.
+     * @throws IllegalArgumentException If the archive is not a .zip file, or if a removed entry is not in the archive.
+     * @throws IllegalStateException If an IO error occurs.
+     */
+    @Override
+    public void update(Path archive, List<EntrySource> entries, Collection<String> removedNames) {
+        if (ArchiveFormat.of(archive) != ArchiveFormat.ZIP) {
+            throw new IllegalArgumentException("Incremental update is only supported for .zip archives: " + archive);
+        }
+        var skipped = new HashSet<>(removedNames);
+        entries.forEach(e -> skipped.add(e.name()));
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(archive.toAbsolutePath().getParent(), archive.getFileName().toString(), ".tmp");
+            updateZip(archive, temporary, entries, removedNames, skipped);
+            Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Update: " + archive, e);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    // The temporary file is left behind, the archive is not affected.
+                }
+            }
+        }
+    }
+
+    private void updateZip(Path archive, Path temporary, List<EntrySource> entries, Collection<String> removedNames, Set<String> skipped) throws IOException {
+        var buffer = ArchiveIO.buffer();
+        try (var zip = new ZipFile(Files.newByteChannel(archive)); var out = new ZipArchiveOutputStream(temporary)) {
+            var missing = new HashSet<>(removedNames);
+            missing.removeIf(name -> zip.getEntry(name) != null);
+            checkMissing(missing, archive.toString());
+            // A kept link to a removed or replaced entry is stored as a regular entry holding the original content.
+            var detached = new LinkedHashMap<String, ZipArchiveEntry>();
+            Deduplicator.linkTargets(zip).forEach((link, target) -> {
+                if (!skipped.contains(link) && skipped.contains(target.getName())) {
+                    detached.put(link, target);
+                }
+            });
+            zip.copyRawEntries(out, e -> !skipped.contains(e.getName()) && !detached.containsKey(e.getName()));
+            for (var link : detached.entrySet()) {
+                var entry = new ZipArchiveEntry(link.getKey());
+                entry.setTime(zip.getEntry(link.getKey()).getTime());
+                out.putArchiveEntry(entry);
+                try (var in = zip.getInputStream(link.getValue())) {
+                    ArchiveIO.copy(in, out, buffer);
+                }
+                out.closeArchiveEntry();
+            }
+            for (var source : entries) {
+                out.putArchiveEntry(new ZipArchiveEntry(source.name()));
+                try (var in = source.content().open()) {
+                    ArchiveIO.copy(in, out, buffer);
+                }
+                out.closeArchiveEntry();
+            }
+        }
+    }
+
+    /**
+     * Verify the integrity of an archive, every entry is decoded into a discarding sink and checked against its stored size and CRC.
+     * 7z entries are verified in ranges split at folder boundaries, one worker per range, zip entries independently.
+     *
+     * @param archive The path to the archive file.
+     * @param parallelism Maximum number of threads and memory budget for the decoders.
+     * @return The verification result.
+     * @throws IllegalArgumentException If the archive is not a .7z or .zip file.
+     * @throws IllegalStateException If the archive cannot be opened, or if its headers are corrupt.
+     */
+    @Override
+    public VerificationReport verify(Path archive, Parallelism parallelism) {
+        try {
+            return ArchiveVerifier.verify(archive, parallelism);
+        } catch (IOException e) {
+            throw new IllegalStateException("Verify: " + archive, e);
+        }
+    }
+
+    /**
+     * Copy the content of an archive entry to a stream, a link entry is resolved to the content of its target.
+     *
+     * @param source Open the archive to read.
+     * @param archive Archive name.
+     * @param format Archive format.
+     * @param fileName Name of the entry to copy.
+     * @param capacity Maximum size accepted for the entry, -1 for no limit, checked before decoding.
+     * @param output Stream receiving the entry content.
+     * @return The number of bytes written.
+     */
+    private long extract(ArchiveIO.ChannelSource source, String archive, ArchiveFormat format, String fileName, long capacity, OutputStream output) {
+        var buffer = ArchiveIO.buffer();
+        try {
+            if (format == ArchiveFormat.SEVEN_ZIP) {
+                try (var sevenZFile = open7z(source, archive)) {
+                    for (var e : sevenZFile.getEntries()) {
+                        if (e.getName().equals(fileName) && !e.isDirectory()) {
+                            var data = Deduplicator.resolve(sevenZFile, e);
+                            checkCapacity(data.getSize(), capacity, fileName);
+                            try (var in = sevenZFile.getInputStream(data)) {
+                                return ArchiveIO.copy(in, output, buffer);
+                            }
+                        }
+                    }
+                }
+            } else {
+                try (var zip = new ZipFile(source.open())) {
+                    var entry = zip.getEntry(fileName);
+                    if (entry != null && !entry.isDirectory()) {
+                        var data = Deduplicator.resolve(zip, entry);
+                        checkCapacity(data.getSize(), capacity, fileName);
+                        try (var in = zip.getInputStream(data)) {
+                            return ArchiveIO.copy(in, output, buffer);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unarchive: " + fileName + " from " + archive + " to stream", e);
+        }
+        throw new IllegalArgumentException("File not found Unarchive: " + fileName + " in " + archive);
+    }
+
+    private static void checkCapacity(long size, long capacity, String fileName) {
+        if (capacity >= 0 && size > capacity) {
+            throw new IllegalArgumentException("Not enough space to unarchive " + fileName + ": " + size + " bytes needed, " + capacity + " available");
+        }
+    }
+
+    /**
+     * Compress files into a 7z archive.
+     *
+     * @param source Files to compress.
+     * @param root Directory the entry names are relative to, null to name the entries after the file names.
+     * @param duplicates Files to store as links, associated to the file they duplicate.
+     * @param archive Archive to write.
+     * @param options Compression settings.
+     * @param progress Progress of the compression.
+     */
+    private void pack7Z(List<Path> source, Path root, Map<Path, Path> duplicates, Path archive, CompressionOptions options, ProgressTracker progress) {
+        var buffer = ArchiveIO.buffer();
+        var methods = contentMethods(options);
+        try (var out = new SevenZOutputFile(archive.toFile())) {
+            out.setContentMethods(methods);
+            for (var file : source) {
+                var name = entryName(root, file);
+                var original = duplicates.get(file);
+                if (original != null) {
+                    var entry = out.createArchiveEntry(file, name);
+                    entry.setHasWindowsAttributes(true);
+                    entry.setWindowsAttributes(Deduplicator.SEVEN_ZIP_LINK_ATTRIBUTES);
+                    out.putArchiveEntry(entry);
+                    out.write(linkContent(root, file, original));
+                    out.closeArchiveEntry();
+                    continue;
+                }
+                var event = new ArchiveEntryEvent();
+                event.begin();
+                out.putArchiveEntry(out.createArchiveEntry(file, name));
+                var bytes = 0L;
+                try (var in = progress.wrap(name, Files.newInputStream(file))) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        bytes += read;
+                    }
+                }
+                out.closeArchiveEntry();
+                event.complete(OperationMetrics.Type.PACK, archive, name, bytes);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Archive multiple file: " + source + " to " + archive, e);
+        }
+    }
+
+    private void packZip(List<Path> source, Path root, Map<Path, Path> duplicates, Path archive, CompressionOptions options, ProgressTracker progress) {
+        var buffer = ArchiveIO.buffer();
+        try (var out = new ZipArchiveOutputStream(archive)) {
+            out.setMethod(zipMethod(options));
+            out.setLevel(options.level());
+            for (var file : source) {
+                var name = entryName(root, file);
+                var original = duplicates.get(file);
+                if (original != null) {
+                    out.putArchiveEntry(linkEntry(file, name));
+                    out.write(linkContent(root, file, original));
+                    out.closeArchiveEntry();
+                    continue;
+                }
+                var event = new ArchiveEntryEvent();
+                event.begin();
+                out.putArchiveEntry(out.createArchiveEntry(file, name));
+                long bytes;
+                try (var in = progress.wrap(name, Files.newInputStream(file))) {
+                    bytes = ArchiveIO.copy(in, out, buffer);
+                }
+                out.closeArchiveEntry();
+                event.complete(OperationMetrics.Type.PACK, archive, name, bytes);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Archive multiple file: " + source + " to " + archive, e);
+        }
+    }
+
+    private void packZip(List<Path> source, Path root, Map<Path, Path> duplicates, Path archive, Parallelism parallelism, CompressionOptions options, ProgressTracker progress) {
+        var storeMemory = Math.max(1, parallelism.memoryBudget() / parallelism.threads());
+        var executor = Executors.newFixedThreadPool(parallelism.threads());
+        var creator = new ParallelScatterZipCreator(executor, () -> new BoundedScatterBackingStore(storeMemory), options.level());
+        try (var out = new ZipArchiveOutputStream(archive)) {
+            for (var file : source) {
+                var original = duplicates.get(file);
+                if (original != null) {
+                    var link = linkEntry(file, entryName(root, file));
+                    link.setMethod(zipMethod(options));
+                    var content = linkContent(root, file, original);
+                    creator.addArchiveEntry(link, () -> new ByteArrayInputStream(content));
+                    continue;
+                }
+                var entry = new ZipArchiveEntry(file, entryName(root, file));
+                entry.setMethod(zipMethod(options));
+                creator.addArchiveEntry(entry, () -> {
+                    try {
+                        return progress.wrap(entry.getName(), Files.newInputStream(file));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            creator.writeTo(out);
+        } catch (ExecutionException e) {
+            if (progress.isCancelled()) {
+                throw new CancellationException("Archive multiple file: " + source + " to " + archive);
+            }
+            throw new IllegalStateException("Archive multiple file: " + source + " to " + archive, e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Archive multiple file: " + source + " to " + archive, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archive multiple file: " + source + " to " + archive, e);
+        } finally {
+            // Already shut down by writeTo, unless an error occurred before.
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Extract the entries of a 7z archive, the archive is decoded sequentially only once.
+     * Links are restored once all the files are extracted, a requested link whose target is not requested receives a copy of the target content.
+     *
+     * @param source Open the archive to read.
+     * @param archive Archive name.
+     * @param fileNames Names of the entries to extract, null to extract them all.
+     * @param destinationDirectory Directory where the entries are extracted.
+     * @param progress Progress of the extraction.
+     */
+    private void unarchive7z(ArchiveIO.ChannelSource source, String archive, Set<String> fileNames, Path destinationDirectory, ProgressTracker progress) {
+        var buffer = ArchiveIO.buffer();
+        try {
+            // Resolving the links reads the archive with random access, which cannot be mixed with the sequential decoding.
+            var copies = fileNames == null ? Map.<String, List<String>>of() : linkCopies(source, archive, fileNames);
+            try (var sevenZFile = open7z(source, archive)) {
+                Set<String> wanted = null;
+                if (fileNames != null) {
+                    var missing = new HashSet<>(fileNames);
+                    sevenZFile.getEntries().forEach(e -> missing.remove(e.getName()));
+                    checkMissing(missing, archive);
+                    wanted = new HashSet<>(fileNames);
+                    copies.values().forEach(wanted::removeAll);
+                    wanted.addAll(copies.keySet());
+                }
+                var remaining = wanted == null ? -1 : wanted.size();
+                var total = 0L;
+                for (var e : sevenZFile.getEntries()) {
+                    if (wanted == null || wanted.contains(e.getName())) {
+                        total += e.getSize();
+                    }
+                }
+                progress.start(total);
+                var links = new LinkedHashMap<String, byte[]>();
+                for (var e = sevenZFile.getNextEntry(); e != null && remaining != 0; e = sevenZFile.getNextEntry()) {
+                    if (wanted != null && !wanted.contains(e.getName())) {
+                        continue;
+                    }
+                    remaining--;
+                    if (e.isDirectory()) {
+                        Files.createDirectories(ArchiveIO.resolve(destinationDirectory, e.getName()));
+                    } else if (Deduplicator.isLink(e)) {
+                        var content = new ByteArrayOutputStream();
+                        int read;
+                        while ((read = sevenZFile.read(buffer)) != -1) {
+                            content.write(buffer, 0, read);
+                        }
+                        links.put(e.getName(), content.toByteArray());
+                    } else {
+                        var names = new ArrayList<String>();
+                        if (fileNames == null || fileNames.contains(e.getName())) {
+                            names.add(e.getName());
+                        }
+                        names.addAll(copies.getOrDefault(e.getName(), List.of()));
+                        var target = ArchiveIO.resolve(destinationDirectory, names.get(0));
+                        Files.createDirectories(target.getParent());
+                        var event = new ArchiveEntryEvent();
+                        event.begin();
+                        var bytes = 0L;
+                        try (var out = Files.newOutputStream(target)) {
+                            int read;
+                            while ((read = sevenZFile.read(buffer)) != -1) {
+                                out.write(buffer, 0, read);
+                                progress.update(e.getName(), read);
+                                bytes += read;
+                            }
+                        }
+                        event.complete(OperationMetrics.Type.UNPACK, archive, e.getName(), bytes);
+                        for (var name : names.subList(1, names.size())) {
+                            Deduplicator.extractLink(destinationDirectory, name, Deduplicator.linkContent(name, names.get(0)).getBytes(StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+                for (var link : links.entrySet()) {
+                    Deduplicator.extractLink(destinationDirectory, link.getKey(), link.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unarchive: " + archive + " to " + destinationDirectory, e);
+        }
+    }
+
+    /**
+     * Find the requested 7z link entries whose target is not requested.
+     *
+     * @param source Open the archive to read.
+     * @param archive Archive name.
+     * @param fileNames Names of the requested entries.
+     * @return The names of those links, by name of their target entry.
+     * @throws IOException If the archive cannot be read.
+     */
+    private static Map<String, List<String>> linkCopies(ArchiveIO.ChannelSource source, String archive, Set<String> fileNames) throws IOException {
+        var result = new LinkedHashMap<String, List<String>>();
+        try (var sevenZFile = open7z(source, archive)) {
+            var requestedLink = false;
+            for (var e : sevenZFile.getEntries()) {
+                requestedLink |= fileNames.contains(e.getName()) && Deduplicator.isLink(e);
+            }
+            if (!requestedLink) {
+                return result;
+            }
+            for (var link : Deduplicator.linkTargets(sevenZFile).entrySet()) {
+                var target = link.getValue().getName();
+                if (fileNames.contains(link.getKey()) && !fileNames.contains(target)) {
+                    result.computeIfAbsent(target, k -> new ArrayList<>()).add(link.getKey());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extract the entries of a zip archive, in their physical order in the archive.
+     * Links are restored once all the files are extracted, a requested link whose target is not requested receives a copy of the target content.
+     *
+     * @param source Open the archive to read.
+     * @param archive Archive name.
+     * @param fileNames Names of the entries to extract, null to extract them all.
+     * @param destinationDirectory Directory where the entries are extracted.
+     * @param progress Progress of the extraction.
+     */
+    private void unarchiveZip(ArchiveIO.ChannelSource source, String archive, Set<String> fileNames, Path destinationDirectory, ProgressTracker progress) {
+        var buffer = ArchiveIO.buffer();
+        try (var zip = new ZipFile(source.open())) {
+            List<ZipArchiveEntry> entries = Collections.list(zip.getEntriesInPhysicalOrder());
+            if (fileNames != null) {
+                var missing = new HashSet<>(fileNames);
+                entries.forEach(e -> missing.remove(e.getName()));
+                checkMissing(missing, archive);
+                entries = entries.stream().filter(e -> fileNames.contains(e.getName())).toList();
+            }
+            progress.start(entries.stream().anyMatch(e -> e.getSize() < 0) ? -1 : entries.stream().mapToLong(ZipArchiveEntry::getSize).sum());
+            var links = new ArrayList<ZipArchiveEntry>();
+            for (var e : entries) {
+                var target = ArchiveIO.resolve(destinationDirectory, e.getName());
+                var data = Deduplicator.resolve(zip, e);
+                if (e.isDirectory()) {
+                    Files.createDirectories(target);
+                } else if (Deduplicator.isLink(e) && (data == e || fileNames == null || fileNames.contains(data.getName()))) {
+                    links.add(e);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    var event = new ArchiveEntryEvent();
+                    event.begin();
+                    long bytes;
+                    try (var in = progress.wrap(e.getName(), zip.getInputStream(data)); var out = Files.newOutputStream(target)) {
+                        bytes = ArchiveIO.copy(in, out, buffer);
+                    }
+                    event.complete(OperationMetrics.Type.UNPACK, archive, e.getName(), bytes);
+                }
+            }
+            for (var link : links) {
+                try (var in = zip.getInputStream(link)) {
+                    Deduplicator.extractLink(destinationDirectory, link.getName(), in.readAllBytes());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unarchive: " + archive + " to " + destinationDirectory, e);
+        }
+    }
+
+    /**
+     * Compute the total size of the files to compress.
+     *
+     * @param source Files to compress.
+     * @return The total size, -1 if a file size cannot be read.
+     */
+    private static long totalSize(List<Path> source) {
+        var total = 0L;
+        try {
+            for (var file : source) {
+                total += Files.size(file);
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return total;
+    }
+
+    /**
+     * Provide the 7z coder matching the settings.
+     *
+     * @param options Compression settings.
+     * @return The coder to use for the archive content.
+     * @throws IllegalArgumentException If the dictionary size is not supported by LZMA2.
+     */
+    private static List<SevenZMethodConfiguration> contentMethods(CompressionOptions options) {
+        return List.of(switch (options.method()) {
+            case COPY -> new SevenZMethodConfiguration(SevenZMethod.COPY);
+            case DEFLATE -> new SevenZMethodConfiguration(SevenZMethod.DEFLATE, options.level());
+            case BZIP2 -> new SevenZMethodConfiguration(SevenZMethod.BZIP2, Math.max(1, options.level()));
+            case LZMA2 -> {
+                try {
+                    var lzma = new LZMA2Options(options.level());
+                    if (options.dictionarySize() > 0) {
+                        lzma.setDictSize(options.dictionarySize());
+                    }
+                    yield new SevenZMethodConfiguration(SevenZMethod.LZMA2, lzma);
+                } catch (UnsupportedOptionsException e) {
+                    throw new IllegalArgumentException("Unsupported LZMA2 settings: " + options, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Zip only supports deflate, any method other than copy is deflated.
+     */
+    private static int zipMethod(CompressionOptions options) {
+        return options.method() == CompressionOptions.Method.COPY ? ZipArchiveEntry.STORED : ZipArchiveEntry.DEFLATED;
+    }
+
+    /**
+     * Find the files to store as links, the duplicates having the same entry name as their original are compressed normally.
+     */
+    private static Map<Path, Path> findDuplicates(List<Path> source, Path archive, CompressionOptions options) {
+        try {
+            var duplicates = Deduplicator.findDuplicates(source, options.threads());
+            duplicates.entrySet().removeIf(e -> entryName(null, e.getKey()).equals(entryName(null, e.getValue())));
+            return duplicates;
+        } catch (IOException e) {
+            throw new IllegalStateException("Archive multiple file: " + source + " to " + archive, e);
+        }
+    }
+
+    private static ZipArchiveEntry linkEntry(Path file, String name) throws IOException {
+        var entry = Deduplicator.zipLink(name);
+        entry.setLastModifiedTime(Files.getLastModifiedTime(file));
+        return entry;
+    }
+
+    private static byte[] linkContent(Path root, Path file, Path original) {
+        return Deduplicator.linkContent(entryName(root, file), entryName(root, original)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String entryName(Path root, Path file) {
+        return root == null ? file.getFileName().toString() : DirectoryScanner.entryName(root, file);
+    }
+
+    private static SevenZFile open7z(ArchiveIO.ChannelSource source, String archive) throws IOException {
+        return new SevenZFile(source.open(), archive, SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build());
+    }
+
+    private static void checkMissing(Set<String> missing, String archive) {
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("File not found Unarchive: " + missing + " in " + archive);
+        }
+    }
+}
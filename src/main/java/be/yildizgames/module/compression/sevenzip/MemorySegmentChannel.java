@@ -0,0 +1,164 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Read only channel over an archive already in memory, on heap, off heap or memory mapped.
+ * The data are read directly from the memory, without being copied first nor going through any system call.
+ * An instance is not thread safe, the retrievers and archivers only use it from one thread at a time.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class MemorySegmentChannel implements SeekableByteChannel {
+
+    /**
+     * Archive content.
+     */
+    private final MemorySegment segment;
+
+    /**
+     * Current reading position.
+     */
+    private long position;
+
+    private boolean open = true;
+
+    /**
+     * Create a channel over a memory segment.
+     *
+     * @param segment Archive content, must stay alive as long as the channel is used.
+     */
+    public MemorySegmentChannel(MemorySegment segment) {
+        super();
+        this.segment = Objects.requireNonNull(segment);
+    }
+
+    /**
+     * Create a channel over the remaining content of a buffer, the buffer position is not modified.
+     *
+     * @param buffer Archive content, heap or direct.
+     */
+    public MemorySegmentChannel(ByteBuffer buffer) {
+        this(MemorySegment.ofBuffer(buffer));
+    }
+
+    /**
+     * Create a channel over an array.
+     *
+     * @param content Archive content.
+     */
+    public MemorySegmentChannel(byte[] content) {
+        this(MemorySegment.ofArray(content));
+    }
+
+    /**
+     * Map an archive file in memory.
+     *
+     * @param archive Archive to map.
+     * @param arena Arena controlling the mapping lifetime.
+     * @return A channel reading the mapped file.
+     * @throws IllegalStateException If the file cannot be mapped.
+     */
+    public static MemorySegmentChannel map(Path archive, Arena arena) {
+        try (var channel = FileChannel.open(archive)) {
+            return new MemorySegmentChannel(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        var available = this.segment.byteSize() - this.position;
+        if (available <= 0) {
+            return -1;
+        }
+        var length = (int) Math.min(dst.remaining(), available);
+        MemorySegment.copy(this.segment, this.position, MemorySegment.ofBuffer(dst), 0, length);
+        dst.position(dst.position() + length);
+        this.position += length;
+        return length;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return this.position;
+    }
+
+    @Override
+    public MemorySegmentChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return this.segment.byteSize();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Close the channel, the underlying memory is left untouched.
+     */
+    @Override
+    public void close() {
+        this.open = false;
+    }
+
+    @Override
+    public String toString() {
+        return "MemorySegmentChannel[size=" + this.segment.byteSize() + "]";
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
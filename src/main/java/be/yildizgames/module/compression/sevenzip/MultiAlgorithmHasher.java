@@ -0,0 +1,245 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.FileHash;
+import be.yildizgames.common.hashing.HashingFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compute the hashes of a stream for several algorithms while reading it only once.
+ * Every chunk read from the source is shared with one hashing task per algorithm, each running in its own virtual thread,
+ * so the digests are computed in parallel while the source keeps being decoded.
+ * The number of chunks waiting to be hashed is bounded, a slow algorithm applies back pressure on the reader.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MultiAlgorithmHasher implements AutoCloseable {
+
+    /**
+     * Size of the chunks shared with the hashing tasks.
+     */
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Maximum number of chunks waiting to be consumed by a single hashing task.
+     */
+    private static final int QUEUE_CAPACITY = 8;
+
+    /**
+     * Marker for the end of the stream.
+     */
+    private static final byte[] END = new byte[0];
+
+    /**
+     * Marker for a source that failed to be read.
+     */
+    private static final byte[] FAILURE = new byte[0];
+
+    /**
+     * Algorithms to compute, never null.
+     */
+    private final Algorithm[] algorithms;
+
+    /**
+     * Executor running the hashing tasks, null when a single algorithm is computed since the hash is computed in the caller thread.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Create a new instance.
+     *
+     * @param algorithms Algorithms to compute, cannot be null.
+     */
+    MultiAlgorithmHasher(Algorithm... algorithms) {
+        super();
+        this.algorithms = Arrays.copyOf(algorithms, algorithms.length);
+        this.executor = algorithms.length > 1 ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    /**
+     * Compute the hashes for all the algorithms, the source is read only once.
+     *
+     * @param source Stream to hash, it is not closed.
+     * @param size Size of the stream content, only used as a hint, larger than Integer.MAX_VALUE is passed as Integer.MAX_VALUE.
+     * @return The hashes, in the same order as the algorithms.
+     * @throws IOException If the source cannot be read.
+     */
+    List<FileHash> compute(InputStream source, long size) throws IOException {
+        if (this.algorithms.length == 0) {
+            return List.of();
+        }
+        var sizeHint = (int) Math.min(Integer.MAX_VALUE, size);
+        if (this.executor == null) {
+            return List.of(HashingFactory.get(this.algorithms[0]).compute(source, sizeHint));
+        }
+        var streams = new ArrayList<ChunkInputStream>(this.algorithms.length);
+        var tasks = new ArrayList<Future<FileHash>>(this.algorithms.length);
+        for (var a : this.algorithms) {
+            var stream = new ChunkInputStream();
+            streams.add(stream);
+            tasks.add(this.executor.submit(() -> {
+                try {
+                    return HashingFactory.get(a).compute(stream, sizeHint);
+                } finally {
+                    stream.abandon();
+                }
+            }));
+        }
+        try {
+            byte[] chunk;
+            do {
+                chunk = source.readNBytes(CHUNK_SIZE);
+                var shared = chunk.length == 0 ? END : chunk;
+                for (var stream : streams) {
+                    stream.publish(shared);
+                }
+            } while (chunk.length > 0);
+        } catch (IOException | RuntimeException e) {
+            streams.forEach(ChunkInputStream::fail);
+            tasks.forEach(t -> t.cancel(true));
+            throw e;
+        }
+        var result = new ArrayList<FileHash>(tasks.size());
+        for (var task : tasks) {
+            result.add(await(task));
+        }
+        return List.copyOf(result);
+    }
+
+    @Override
+    public void close() {
+        if (this.executor != null) {
+            this.executor.close();
+        }
+    }
+
+    private static FileHash await(Future<FileHash> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Hash computation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Input stream consumed by a hashing task, fed with the chunks read from the source.
+     */
+    private static final class ChunkInputStream extends InputStream {
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        /**
+         * Set when the hashing task does not read anymore, further chunks are dropped.
+         */
+        private volatile boolean abandoned;
+
+        private byte[] current = new byte[0];
+
+        private int position;
+
+        private boolean ended;
+
+        /**
+         * Make a chunk available to the hashing task, wait if too many chunks are not consumed yet.
+         *
+         * @param chunk Chunk to publish, it must not be modified afterward.
+         * @throws InterruptedIOException If the thread is interrupted while waiting.
+         */
+        void publish(byte[] chunk) throws InterruptedIOException {
+            try {
+                while (!this.abandoned && !this.chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    // Waiting for the hashing task to consume.
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Hash computation interrupted");
+            }
+        }
+
+        void fail() {
+            this.chunks.clear();
+            this.chunks.offer(FAILURE);
+        }
+
+        void abandon() {
+            this.abandoned = true;
+            this.chunks.clear();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            return this.current[this.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            var count = Math.min(len, this.current.length - this.position);
+            System.arraycopy(this.current, this.position, b, off, count);
+            this.position += count;
+            return count;
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (!this.ended && this.position == this.current.length) {
+                byte[] chunk;
+                try {
+                    chunk = this.chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Hash computation interrupted");
+                }
+                if (chunk == FAILURE) {
+                    throw new IOException("Source stream could not be read");
+                }
+                this.ended = chunk == END;
+                this.current = chunk;
+                this.position = 0;
+            }
+            return !this.ended;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Native memory reused by all the native calls of a thread to pass their arguments.
+ * Each thread owns its memory, so concurrent calls never share nor lock anything, and no arena is created per call.
+ * The memory is released by the garbage collector once the thread is gone.
+ *
+ * @author Grégory Van den Borre
+ */
+final class NativeScratch {
+
+    /**
+     * Initial size of the memory of each thread, enough for a few hundred paths.
+     */
+    static final long INITIAL_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<NativeScratch> SCRATCH = ThreadLocal.withInitial(NativeScratch::new);
+
+    /**
+     * Memory of the thread, replaced by a bigger one when a call needs more.
+     */
+    private MemorySegment segment = Arena.ofAuto().allocate(INITIAL_SIZE, ValueLayout.ADDRESS.byteAlignment());
+
+    private NativeScratch() {
+        super();
+    }
+
+    /**
+     * Provide an allocator over the memory of the current thread.
+     * The allocated segments are only valid until the next call of this method in the same thread.
+     *
+     * @param size Maximum number of bytes that will be allocated, see sizeOf.
+     * @return The allocator.
+     */
+    static SegmentAllocator allocator(long size) {
+        var scratch = SCRATCH.get();
+        if (scratch.segment.byteSize() < size) {
+            scratch.segment = Arena.ofAuto().allocate(Math.max(size, scratch.segment.byteSize() * 2), ValueLayout.ADDRESS.byteAlignment());
+        }
+        return SegmentAllocator.slicingAllocator(scratch.segment);
+    }
+
+    /**
+     * Compute an upper bound of the memory needed to allocate native strings and an array of their addresses.
+     *
+     * @param strings Strings to allocate.
+     * @return The number of bytes to request.
+     */
+    static long sizeOf(String... strings) {
+        var alignment = ValueLayout.ADDRESS.byteSize();
+        var size = alignment * (strings.length + 1L);
+        for (var s : strings) {
+            // At most 3 UTF-8 bytes per UTF-16 char, plus the terminator and the alignment padding.
+            size += 3L * s.length() + 1 + alignment;
+        }
+        return size;
+    }
+
+    /**
+     * Allocate a native array of native strings.
+     *
+     * @param allocator Allocator for the strings, they only need to live for the duration of the call.
+     * @param paths Paths to convert.
+     * @return The native array.
+     */
+    static MemorySegment allocatePaths(SegmentAllocator allocator, String[] paths) {
+        var segment = allocator.allocate(ValueLayout.ADDRESS, paths.length);
+        for (int i = 0; i < paths.length; i++) {
+            segment.setAtIndex(ValueLayout.ADDRESS, i, allocator.allocateFrom(paths[i]));
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Measures of a completed archive operation.
+ *
+ * @param type Operation type.
+ * @param archive Archive name, or description of the channel or stream.
+ * @param duration Time spent in the operation.
+ * @param bytesIn Number of bytes read: uncompressed bytes for a pack, archive size for the other operations, -1 if unknown.
+ * @param bytesOut Number of bytes written: archive size for a pack or an update, uncompressed bytes for an unpack, -1 if unknown or failed.
+ * @param success True if the operation completed.
+ * @param errorCode Native error code of a failed native operation, empty otherwise.
+ *
+ * @author Grégory Van den Borre
+ */
+public record OperationMetrics(Type type, String archive, Duration duration, long bytesIn, long bytesOut, boolean success, OptionalInt errorCode) {
+
+    public OperationMetrics {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(archive);
+        Objects.requireNonNull(duration);
+        Objects.requireNonNull(errorCode);
+    }
+
+    /**
+     * @return The size of the compressed data divided by the size of the uncompressed data, -1 if a size is unknown.
+     */
+    public double compressionRatio() {
+        if (this.bytesIn <= 0 || this.bytesOut <= 0 || this.type == Type.READ_INFO || this.type == Type.UPDATE || this.type == Type.VERIFY) {
+            return -1;
+        }
+        return this.type == Type.PACK ? (double) this.bytesOut / this.bytesIn : (double) this.bytesIn / this.bytesOut;
+    }
+
+    /**
+     * Operation types.
+     */
+    public enum Type {
+
+        PACK,
+
+        UNPACK,
+
+        /**
+         * Add, replace or remove entries of an existing archive.
+         */
+        UPDATE,
+
+        /**
+         * Read the entries info of an archive.
+         */
+        READ_INFO,
+
+        /**
+         * Decode all the entries of an archive to check them.
+         */
+        VERIFY
+    }
+}
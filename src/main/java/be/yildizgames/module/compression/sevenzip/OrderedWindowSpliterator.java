@@ -0,0 +1,99 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterator processing the source elements in parallel while keeping the source order.
+ * Only a bounded window of elements is processed ahead of the consumer, so the memory stays constant whatever the source size.
+ *
+ * @param <T> Source element type.
+ * @param <R> Result type.
+ *
+ * @author Grégory Van den Borre
+ */
+final class OrderedWindowSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+
+    private final Iterator<? extends T> source;
+
+    private final Function<T, R> task;
+
+    private final Executor executor;
+
+    /**
+     * Maximum number of elements processed ahead of the consumer.
+     */
+    private final int window;
+
+    private final Deque<CompletableFuture<R>> pending = new ArrayDeque<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param source Elements to process.
+     * @param task Processing for a single element.
+     * @param executor Executor running the processing.
+     * @param window Maximum number of elements processed ahead of the consumer.
+     */
+    OrderedWindowSpliterator(Iterator<? extends T> source, Function<T, R> task, Executor executor, int window) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.source = source;
+        this.task = task;
+        this.executor = executor;
+        this.window = window;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        while (this.pending.size() < this.window && this.source.hasNext()) {
+            var element = this.source.next();
+            this.pending.add(CompletableFuture.supplyAsync(() -> this.task.apply(element), this.executor));
+        }
+        var next = this.pending.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            action.accept(next.join());
+        } catch (CompletionException e) {
+            cancel();
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return true;
+    }
+
+    /**
+     * Cancel the elements processed ahead of the consumer.
+     */
+    void cancel() {
+        this.pending.forEach(f -> f.cancel(true));
+        this.pending.clear();
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.sevenz.SevenZFileOptions;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.tukaani.xz.LZMA2Options;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Extract archives using several threads.
+ * For 7z, the entries are split at folder boundaries in contiguous ranges of similar size, each decoded by its own worker with its own file handle,
+ * so independent folders are decoded on separate cores and every folder is decoded only once.
+ * A solid archive whose data are mostly in a single folder is decoded by a single worker.
+ * The number of workers is limited so their decoder dictionaries fit in the memory budget.
+ * For zip, every entry is inflated independently.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ParallelExtractor {
+
+    /**
+     * Minimum memory assumed for a decoder.
+     */
+    private static final long MINIMUM_DECODER_MEMORY = ArchiveIO.BUFFER_SIZE;
+
+    private ParallelExtractor() {
+        super();
+    }
+
+    /**
+     * Extract all the entries of a 7z archive.
+     *
+     * @param archive Archive to extract.
+     * @param destinationDirectory Directory where the entries are extracted.
+     * @param parallelism Threads and memory budget.
+     * @throws IOException If an error occurs while reading the archive or writing the files.
+     */
+    static void unarchive7z(Path archive, Path destinationDirectory, Parallelism parallelism) throws IOException {
+        List<SevenZArchiveEntry> entries;
+        long decoderMemory;
+        try (var sevenZFile = open(archive)) {
+            entries = list(sevenZFile);
+            decoderMemory = decoderMemory(sevenZFile, entries);
+        }
+        var folders = SevenZipFolders.read(archive, entries);
+        var files = new ArrayList<Integer>();
+        var links = new ArrayList<Integer>();
+        for (int i = 0; i < entries.size(); i++) {
+            var e = entries.get(i);
+            if (e.isDirectory()) {
+                Files.createDirectories(ArchiveIO.resolve(destinationDirectory, e.getName()));
+            } else if (Deduplicator.isLink(e)) {
+                links.add(i);
+            } else {
+                files.add(i);
+            }
+        }
+        var workers = (int) Math.max(1, Math.min(Math.min(parallelism.threads(), files.size()), parallelism.memoryBudget() / decoderMemory));
+        var ranges = split(entries, files, folders, workers);
+        try (var executor = Executors.newFixedThreadPool(ranges.size())) {
+            var tasks = new ArrayList<Future<?>>(ranges.size());
+            for (var range : ranges) {
+                tasks.add(executor.submit(() -> {
+                    extract7z(archive, range, destinationDirectory);
+                    return null;
+                }));
+            }
+            awaitAll(tasks);
+        }
+        if (!links.isEmpty()) {
+            // Links are restored once their targets are extracted.
+            try (var sevenZFile = open(archive)) {
+                var linkEntries = list(sevenZFile);
+                for (var index : links) {
+                    var link = linkEntries.get(index);
+                    try (var in = sevenZFile.getInputStream(link)) {
+                        Deduplicator.extractLink(destinationDirectory, link.getName(), in.readAllBytes());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Extract all the entries of a zip archive.
+     *
+     * @param archive Archive to extract.
+     * @param destinationDirectory Directory where the entries are extracted.
+     * @param parallelism Threads to use, zip decoders do not need a significant memory.
+     * @throws IOException If an error occurs while reading the archive or writing the files.
+     */
+    static void unarchiveZip(Path archive, Path destinationDirectory, Parallelism parallelism) throws IOException {
+        try (var zip = new ZipFile(archive); var executor = Executors.newFixedThreadPool(parallelism.threads())) {
+            var tasks = new ArrayList<Future<?>>();
+            var links = new ArrayList<ZipArchiveEntry>();
+            for (var e : Collections.list(zip.getEntriesInPhysicalOrder())) {
+                var target = ArchiveIO.resolve(destinationDirectory, e.getName());
+                if (e.isDirectory()) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                if (Deduplicator.isLink(e)) {
+                    links.add(e);
+                    continue;
+                }
+                tasks.add(executor.submit(() -> {
+                    Files.createDirectories(target.getParent());
+                    try (var in = zip.getInputStream(e); var out = Files.newOutputStream(target)) {
+                        ArchiveIO.copy(in, out, ArchiveIO.buffer());
+                    }
+                    return null;
+                }));
+            }
+            awaitAll(tasks);
+            // Links are restored once their targets are extracted.
+            for (var link : links) {
+                try (var in = zip.getInputStream(link)) {
+                    Deduplicator.extractLink(destinationDirectory, link.getName(), in.readAllBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Extract a range of entries, with a dedicated archive handle, entries are read in the archive order.
+     */
+    private static void extract7z(Path archive, List<Integer> range, Path destinationDirectory) throws IOException {
+        var buffer = ArchiveIO.buffer();
+        try (var sevenZFile = open(archive)) {
+            var entries = list(sevenZFile);
+            for (var index : range) {
+                var e = entries.get(index);
+                var target = ArchiveIO.resolve(destinationDirectory, e.getName());
+                Files.createDirectories(target.getParent());
+                try (var in = sevenZFile.getInputStream(e); var out = Files.newOutputStream(target)) {
+                    ArchiveIO.copy(in, out, buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Split the files in contiguous ranges of similar uncompressed size, a folder is never split between two ranges.
+     * A worker reaching an entry must decode its folder from the start, so each folder is decoded once, by a single worker.
+     * When the folder layout is unknown, or when a single folder holds most of the data, as in a standard solid archive,
+     * a single range is returned, since more workers would only decode the same folder again.
+     *
+     * @param entries All the archive entries.
+     * @param files Indices of the files to extract, in the archive order.
+     * @param folders Index of the folder holding each entry, -1 for the entries without content, null if unknown.
+     * @param count Maximum number of ranges.
+     * @return The ranges, not empty.
+     */
+    static List<List<Integer>> split(List<SevenZArchiveEntry> entries, List<Integer> files, int[] folders, int count) {
+        if (folders == null) {
+            return List.of(List.copyOf(files));
+        }
+        // Group the files by folder, the files without content join the current group.
+        var groups = new ArrayList<List<Integer>>();
+        var sizes = new ArrayList<Long>();
+        var group = new ArrayList<Integer>();
+        var groupSize = 0L;
+        var groupFolder = -1;
+        for (var index : files) {
+            var folder = folders[index];
+            if (folder >= 0 && folder != groupFolder) {
+                if (groupFolder >= 0) {
+                    groups.add(group);
+                    sizes.add(groupSize);
+                    group = new ArrayList<>();
+                    groupSize = 0;
+                }
+                groupFolder = folder;
+            }
+            group.add(index);
+            groupSize += entries.get(index).getSize();
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+            sizes.add(groupSize);
+        }
+        var total = 0L;
+        var largest = 0L;
+        for (var size : sizes) {
+            total += size;
+            largest = Math.max(largest, size);
+        }
+        if (groups.size() <= 1 || largest * 2 > total) {
+            return List.of(List.copyOf(files));
+        }
+        var target = Math.max(1, total / count);
+        var result = new ArrayList<List<Integer>>(count);
+        var current = new ArrayList<Integer>();
+        var currentSize = 0L;
+        for (int i = 0; i < groups.size(); i++) {
+            current.addAll(groups.get(i));
+            currentSize += sizes.get(i);
+            if (currentSize >= target && result.size() < count - 1) {
+                result.add(current);
+                current = new ArrayList<>();
+                currentSize = 0;
+            }
+        }
+        if (!current.isEmpty()) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    /**
+     * Estimate the memory needed by a decoder, from the dictionary size of the first entry.
+     * Coder properties are only available once decoding started, so the first entry is opened to read them.
+     */
+    static long decoderMemory(SevenZFile sevenZFile, List<SevenZArchiveEntry> entries) throws IOException {
+        var first = entries.stream().filter(SevenZArchiveEntry::hasStream).findFirst();
+        if (first.isEmpty()) {
+            return MINIMUM_DECODER_MEMORY;
+        }
+        try (var in = sevenZFile.getInputStream(first.get())) {
+            in.read();
+        }
+        var memory = MINIMUM_DECODER_MEMORY;
+        var methods = first.get().getContentMethods();
+        if (methods != null) {
+            for (var m : methods) {
+                if (m.getOptions() instanceof Number n) {
+                    memory = Math.max(memory, n.longValue());
+                } else if (m.getOptions() instanceof LZMA2Options o) {
+                    memory = Math.max(memory, o.getDictSize());
+                }
+            }
+        }
+        return memory;
+    }
+
+    static SevenZFile open(Path archive) throws IOException {
+        return new SevenZFile(archive.toFile(), SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build());
+    }
+
+    static List<SevenZArchiveEntry> list(SevenZFile sevenZFile) {
+        var result = new ArrayList<SevenZArchiveEntry>();
+        sevenZFile.getEntries().forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Wait for all the tasks, if one fails, the others are cancelled.
+     */
+    static void awaitAll(List<Future<?>> tasks) throws IOException {
+        try {
+            for (var task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            tasks.forEach(t -> t.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            tasks.forEach(t -> t.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
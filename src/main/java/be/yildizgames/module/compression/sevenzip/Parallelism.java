@@ -0,0 +1,68 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+/**
+ * Configuration for the parallel archive operations.
+ *
+ * @param threads Maximum number of threads used, at least 1.
+ * @param memoryBudget Maximum memory in bytes the parallel workers can use for their buffers, such as the decoder dictionaries.
+ *
+ * @author Grégory Van den Borre
+ */
+public record Parallelism(int threads, long memoryBudget) {
+
+    /**
+     * Single thread processing.
+     */
+    public static final Parallelism SEQUENTIAL = new Parallelism(1, Long.MAX_VALUE);
+
+    public Parallelism {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        }
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+    }
+
+    /**
+     * Create a configuration with a memory budget of half of the maximum heap.
+     *
+     * @param threads Maximum number of threads used.
+     * @return The created configuration.
+     */
+    public static Parallelism of(int threads) {
+        return new Parallelism(threads, Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * Create a configuration using all the available processors, with a memory budget of half of the maximum heap.
+     *
+     * @return The created configuration.
+     */
+    public static Parallelism available() {
+        return of(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return True if only one thread is used.
+     */
+    public boolean isSequential() {
+        return this.threads == 1;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.time.Duration;
+
+/**
+ * Receive the progress of an archive operation, and cancel it if needed.
+ * Calls are rate limited to one per interval, plus a last one once all the data are processed,
+ * they are never concurrent but may come from different threads.
+ *
+ * @author Grégory Van den Borre
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Called when some data have been processed.
+     *
+     * @param entry Name of the entry being processed, null for the last call once the operation is complete.
+     * @param processedBytes Number of uncompressed bytes processed so far.
+     * @param totalBytes Total number of uncompressed bytes to process, -1 if unknown.
+     * @return True to continue, false to cancel the operation, it then fails with a CancellationException.
+     */
+    boolean onProgress(String entry, long processedBytes, long totalBytes);
+
+    /**
+     * @return The minimum time between two calls, 100 milliseconds by default.
+     */
+    default Duration interval() {
+        return Duration.ofMillis(100);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count the bytes processed by an operation and forward them to a listener, at most once per listener interval.
+ * It can be updated from several threads at once.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ProgressTracker {
+
+    /**
+     * Tracker without listener, doing nothing.
+     */
+    static final ProgressTracker NONE = new ProgressTracker(null);
+
+    private final ProgressListener listener;
+
+    /**
+     * Minimum time between two notifications, in nanoseconds.
+     */
+    private final long interval;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    /**
+     * Time of the next notification, in System.nanoTime() scale.
+     */
+    private final AtomicLong nextNotification = new AtomicLong(System.nanoTime());
+
+    private volatile long totalBytes = -1;
+
+    private volatile boolean cancelled;
+
+    private ProgressTracker(ProgressListener listener) {
+        super();
+        this.listener = listener;
+        this.interval = listener == null ? 0 : listener.interval().toNanos();
+    }
+
+    /**
+     * Create a tracker.
+     *
+     * @param listener Listener to notify, null for none.
+     * @return The tracker.
+     */
+    static ProgressTracker of(ProgressListener listener) {
+        return listener == null ? NONE : new ProgressTracker(listener);
+    }
+
+    /**
+     * @param totalBytes Total number of bytes to process, -1 if unknown.
+     */
+    void start(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * Add processed bytes, the listener is notified if the interval is elapsed.
+     *
+     * @param entry Entry being processed.
+     * @param bytes Number of bytes processed since the last update.
+     * @throws CancellationException If the listener cancelled the operation.
+     */
+    void update(String entry, long bytes) {
+        if (this.listener == null) {
+            return;
+        }
+        var total = this.processed.addAndGet(bytes);
+        var now = System.nanoTime();
+        var next = this.nextNotification.get();
+        if (now - next >= 0 && this.nextNotification.compareAndSet(next, now + this.interval)) {
+            notifyListener(entry, total);
+        }
+        if (this.cancelled) {
+            throw new CancellationException("Cancelled while processing " + entry);
+        }
+    }
+
+    /**
+     * Notify the listener that all the data are processed, whatever the interval.
+     */
+    void complete() {
+        if (this.listener != null) {
+            notifyListener(null, this.processed.get());
+        }
+    }
+
+    /**
+     * @return True if the listener cancelled the operation.
+     */
+    boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Count the bytes read from a stream.
+     *
+     * @param entry Entry read from the stream.
+     * @param in Stream to count.
+     * @return The counting stream, or the stream itself if there is no listener.
+     */
+    InputStream wrap(String entry, InputStream in) {
+        if (this.listener == null) {
+            return in;
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                var b = super.read();
+                if (b != -1) {
+                    update(entry, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                var read = super.read(b, off, len);
+                if (read > 0) {
+                    update(entry, read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private synchronized void notifyListener(String entry, long total) {
+        if (!this.cancelled && !this.listener.onProgress(entry, total, this.totalBytes)) {
+            this.cancelled = true;
+        }
+    }
+}
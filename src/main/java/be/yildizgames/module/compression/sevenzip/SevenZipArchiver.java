@@ -16,41 +16,48 @@
 
 package be.yildizgames.module.compression.sevenzip;
 
-import be.yildizgames.module.compression.Archiver;
-
-import java.lang.foreign.Arena;
-import java.lang.foreign.FunctionDescriptor;
-import java.lang.foreign.Linker;
-import java.lang.foreign.SymbolLookup;
-import java.lang.foreign.ValueLayout;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * This class is used to compress and decompress files using the 7zip library.
  * It relies on native libraries to provide the compression and decompression functionality.
+ * The native functions are resolved only once, by SevenZipNativeBindings, each call only allocates its own arguments.
+ * An instance is thread safe and can be shared: the bindings are immutable, and each thread passes its arguments
+ * through its own native scratch memory, so concurrent calls do not lock anything.
  *
  * @author Grégory Van den Borre
  */
-public class SevenZipArchiver implements Archiver {
-
-    private Path lib;
-
-    private Path sevenzipFile;
-
-    private void init() {
-        if(lib == null) {
-            var env_name = "NATIVE_7Z_PATH";
-            var path = System.getProperty(env_name);
-            if(path == null || path.isBlank()) {
-                throw new IllegalArgumentException("Environment variable " + env_name + " is not set or empty, " +
-                        "please provide the directory for 7z and libmodule_compression_7z dynamic libraries.");
-            }
-            var libDirectory = Path.of(path).toAbsolutePath();
-            System.load(libDirectory.resolve("libgcc_s_seh-1.dll").toString());
-            System.load(libDirectory.resolve("libstdc++-6.dll").toString());
-            this.lib = libDirectory.resolve("libmodule_compression_7z.dll");
-            this.sevenzipFile = libDirectory.resolve("7z.dll");;
+public class SevenZipArchiver implements ArchiverEngine {
+
+    /**
+     * Engine for the operations without native entry point.
+     */
+    private static final JavaSevenZipArchiver JAVA_ENGINE = new JavaSevenZipArchiver();
+
+    /**
+     * Check the native library directory is configured, and load the native bindings.
+     *
+     * @param operation Operation requiring the native library.
+     * @param context Description of the operation arguments.
+     * @throws IllegalArgumentException If the native library directory is not configured.
+     * @throws ArchiveOperationException If the native library cannot be loaded, with the reason LIBRARY_NOT_FOUND.
+     */
+    private static void init(ArchiveOperationException.Operation operation, String context) {
+        SevenZipNativeLibrary.directory();
+        var start = System.nanoTime();
+        try {
+            Objects.requireNonNull(SevenZipNativeBindings.SEVEN_ZIP_LIBRARY);
+        } catch (ExceptionInInitializerError | NoClassDefFoundError e) {
+            throw new ArchiveOperationException(operation, ArchiveOperationException.Reason.LIBRARY_NOT_FOUND, context, since(start), e);
         }
     }
 
@@ -59,11 +66,13 @@ public class SevenZipArchiver implements Archiver {
      *
      * @param source The list of files to compress.
      * @param archive The path to the archive file.
-     * @throws IllegalArgumentException If the native library or the runtime library cannot be loaded.
+     * @throws IllegalArgumentException If the archive is not supported, or if the native library directory is not configured.
+     * @throws ArchiveOperationException If the native library cannot be loaded, with the reason LIBRARY_NOT_FOUND,
+     * or if the native function fails.
      */
     @Override
     public final void pack(List<Path> source, Path archive) {
-        init();
+        init(ArchiveOperationException.Operation.PACK, source + " to " + archive);
         if(archive.toString().endsWith(".7z")) {
             pack7Z(source, archive);
         } else if(archive.toString().endsWith(".zip")) {
@@ -74,77 +83,33 @@ public class SevenZipArchiver implements Archiver {
     }
 
     private void pack7Z(List<Path> source, Path archive) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("compressMultipleFiles7z").ifPresentOrElse(c -> {
-                var compressMultipleFileFunction = Linker.nativeLinker().downcallHandle(c, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS));
-                try {
-                    var sourceFilePathNames = source
-                            .stream()
-                            .map(Path::toString)
-                            .toArray(String[]::new);
-                    var sourcePathsSegment = session.allocate(ValueLayout.ADDRESS, sourceFilePathNames.length);
-                    for (int i = 0; i < sourceFilePathNames.length; i++) {
-                        var nativeFilePathNAme = session.allocateFrom(sourceFilePathNames[i]);
-                        sourcePathsSegment.setAtIndex(ValueLayout.ADDRESS, i, nativeFilePathNAme);
-                    }
-                    var result = (int) compressMultipleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            sourcePathsSegment,
-                            sourceFilePathNames.length,
-                            session.allocateFrom(archive.toString()));
-                    if (result > 0) {
-                        logError(result, "Archive multiple file: " + source + " to " + archive);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: compressMultipleFiles");
-            });
-        }
+        packMultiple(SevenZipNativeBindings.COMPRESS_MULTIPLE_FILES_7Z, source, archive);
     }
 
     private void packZip(List<Path> source, Path archive) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("compressMultipleFilesZip").ifPresentOrElse(c -> {
-                var compressMultipleFileFunction = Linker.nativeLinker().downcallHandle(c, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS));
-                try {
-                    var sourceFilePathNames = source
-                            .stream()
-                            .map(Path::toString)
-                            .toArray(String[]::new);
-                    var sourcePathsSegment = session.allocate(ValueLayout.ADDRESS, sourceFilePathNames.length);
-                    for (int i = 0; i < sourceFilePathNames.length; i++) {
-                        var nativeFilePathNAme = session.allocateFrom(sourceFilePathNames[i]);
-                        sourcePathsSegment.setAtIndex(ValueLayout.ADDRESS, i, nativeFilePathNAme);
-                    }
-                    var result = (int) compressMultipleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            sourcePathsSegment,
-                            sourceFilePathNames.length,
-                            session.allocateFrom(archive.toString()));
-                    if (result > 0) {
-                        logError(result, "Archive multiple file: " + source + " to " + archive);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: compressMultipleFiles");
-            });
+        packMultiple(SevenZipNativeBindings.COMPRESS_MULTIPLE_FILES_ZIP, source, archive);
+    }
+
+    private static void packMultiple(MethodHandle function, List<Path> source, Path archive) {
+        var context = source + " to " + archive;
+        var start = System.nanoTime();
+        int result;
+        try {
+            var sourceFilePathNames = source
+                    .stream()
+                    .map(Path::toString)
+                    .toArray(String[]::new);
+            var archiveName = archive.toString();
+            var scratch = NativeScratch.allocator(NativeScratch.sizeOf(sourceFilePathNames) + NativeScratch.sizeOf(archiveName));
+            result = (int) function.invokeExact(
+                    SevenZipNativeBindings.SEVEN_ZIP_LIBRARY,
+                    NativeScratch.allocatePaths(scratch, sourceFilePathNames),
+                    sourceFilePathNames.length,
+                    scratch.allocateFrom(archiveName));
+        } catch (Throwable e) {
+            throw new ArchiveOperationException(ArchiveOperationException.Operation.PACK, context, since(start), e);
         }
+        check(result, ArchiveOperationException.Operation.PACK, context, start);
     }
 
     /**
@@ -152,11 +117,13 @@ public class SevenZipArchiver implements Archiver {
      *
      * @param archive The path to the archive file.
      * @param destinationDirectory The directory where the files will be extracted.
-     * @throws IllegalArgumentException If the native library or the runtime library cannot be loaded.
+     * @throws IllegalArgumentException If the archive is not supported, or if the native library directory is not configured.
+     * @throws ArchiveOperationException If the native library cannot be loaded, with the reason LIBRARY_NOT_FOUND,
+     * or if the native function fails.
      */
     @Override
     public void unpack(Path archive, String fileName, Path destinationDirectory) {
-        init();
+        init(ArchiveOperationException.Operation.UNPACK, fileName + " from " + archive + " to " + destinationDirectory);
         if(archive.toString().endsWith(".7z")) {
             unarchive7z(archive, fileName, destinationDirectory);
         } else if(archive.toString().endsWith(".zip")) {
@@ -171,11 +138,13 @@ public class SevenZipArchiver implements Archiver {
      *
      * @param archive The path to the archive file.
      * @param destinationDirectory The directory where the files will be extracted.
-     * @throws IllegalArgumentException If the native library or the runtime library cannot be loaded.
+     * @throws IllegalArgumentException If the archive is not supported, or if the native library directory is not configured.
+     * @throws ArchiveOperationException If the native library cannot be loaded, with the reason LIBRARY_NOT_FOUND,
+     * or if the native function fails.
      */
     @Override
     public void unpack(Path archive, Path destinationDirectory) {
-        init();
+        init(ArchiveOperationException.Operation.UNPACK, archive + " to " + destinationDirectory);
         if(archive.toString().endsWith(".7z")) {
             unarchive7z(archive, destinationDirectory);
         } else if(archive.toString().endsWith(".zip")) {
@@ -185,124 +154,273 @@ public class SevenZipArchiver implements Archiver {
         }
     }
 
-    private void unarchiveZip(Path archive, Path destinationDirectory) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("decompressZip").ifPresentOrElse(d -> {
-                var compressSingleFileFunction = Linker.nativeLinker().downcallHandle(d, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS));
-                try {
-                    var result = (int) compressSingleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            session.allocateFrom(archive.toString()),
-                            session.allocateFrom(destinationDirectory.toString()));
-                    if(result > 0) {
-                        logError(result, "Unarchive: " + archive + " to " + destinationDirectory);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: decompress");
-            });
+    /**
+     * Unarchive several files from an archive into a directory, the archive is decoded only once.
+     * The native library only extracts one file per call, decoding the solid block from its start each time,
+     * so the entries are decoded in a single pass by the java engine instead.
+     *
+     * @param archive The path to the archive file.
+     * @param fileNames The names of the files in the archive.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @throws IllegalArgumentException If the archive is not supported, or if a file is not in the archive.
+     */
+    @Override
+    public void unpack(Path archive, Collection<String> fileNames, Path destinationDirectory) {
+        JAVA_ENGINE.unpack(archive, fileNames, destinationDirectory);
+    }
+
+    /**
+     * Compress multiple files into an archive using several threads.
+     * The native library does not expose its thread count, so parallel zip packing is done by the java engine,
+     * 7z archives and a sequential parallelism use the native library.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param parallelism Maximum number of threads and memory budget for the compressed data waiting to be written.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    @Override
+    public void pack(List<Path> source, Path archive, Parallelism parallelism) {
+        if (parallelism.isSequential() || !archive.toString().endsWith(".zip")) {
+            pack(source, archive);
+        } else {
+            JAVA_ENGINE.pack(source, archive, parallelism);
         }
     }
 
-    private void unarchiveZip(Path archive, String fileName, Path destinationDirectory) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("decompressFileZip").ifPresentOrElse(d -> {
-                var compressSingleFileFunction = Linker.nativeLinker().downcallHandle(d, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS));
-                try {
-                    var result = (int) compressSingleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            session.allocateFrom(archive.toString()),
-                            session.allocateFrom(fileName),
-                            session.allocateFrom(destinationDirectory.toString()));
-                    if(result > 0) {
-                        logError(result, "Unarchive: " + archive + " to " + destinationDirectory);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: decompress");
-            });
+    /**
+     * Compress the files of a directory tree into an archive.
+     * The native library takes a flat list of paths without any control on the entry names, so trees are handled by the java engine.
+     *
+     * @param directory Directory to compress.
+     * @param archive The path to the archive file.
+     * @param filter Filter selecting the files to compress, directories are always walked.
+     * @throws IllegalArgumentException If the archive is not supported, or if the directory does not exist.
+     */
+    @Override
+    public void pack(Path directory, Path archive, Predicate<Path> filter) {
+        JAVA_ENGINE.pack(directory, archive, filter);
+    }
+
+    /**
+     * Compress multiple files into an archive with the given settings.
+     * The native library only takes paths and applies its own settings, it is used for the default settings,
+     * any other settings are applied by the java engine.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings.
+     * @throws IllegalArgumentException If the archive or the settings are not supported.
+     */
+    @Override
+    public void pack(List<Path> source, Path archive, CompressionOptions options) {
+        if (CompressionOptions.DEFAULT.equals(options)) {
+            pack(source, archive);
+        } else {
+            JAVA_ENGINE.pack(source, archive, options);
         }
     }
 
-    private void unarchive7z(Path archive, Path destinationDirectory) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("decompress7z").ifPresentOrElse(d -> {
-                var compressSingleFileFunction = Linker.nativeLinker().downcallHandle(d, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS));
-                try {
-                    var result = (int) compressSingleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            session.allocateFrom(archive.toString()),
-                            session.allocateFrom(destinationDirectory.toString()));
-                    if(result > 0) {
-                        logError(result, "Unarchive: " + archive + " to " + destinationDirectory);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: decompress");
-            });
+    /**
+     * Compress multiple files into an archive, reporting the progress to a listener.
+     * The native library exposes no progress callback nor cancellation, its functions only return once done,
+     * so operations with a listener are run by the java engine.
+     *
+     * @param source The list of files to compress.
+     * @param archive The path to the archive file.
+     * @param options Compression settings.
+     * @param listener Listener notified of the progress, null to use the native library when possible.
+     * @throws IllegalArgumentException If the archive or the settings are not supported.
+     */
+    @Override
+    public void pack(List<Path> source, Path archive, CompressionOptions options, ProgressListener listener) {
+        if (listener == null) {
+            pack(source, archive, options);
+        } else {
+            JAVA_ENGINE.pack(source, archive, options, listener);
         }
     }
 
-    private void unarchive7z(Path archive, String fileName, Path destinationDirectory) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("decompressFile7z").ifPresentOrElse(d -> {
-                var compressSingleFileFunction = Linker.nativeLinker().downcallHandle(d, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS));
-                try {
-                    var result = (int) compressSingleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            session.allocateFrom(archive.toString()),
-                            session.allocateFrom(fileName),
-                            session.allocateFrom(destinationDirectory.toString()));
-                    if(result > 0) {
-                        logError(result, "Unarchive: " + archive + " to " + destinationDirectory);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: decompress");
-            });
+    /**
+     * Unarchive an archive into a directory, reporting the progress to a listener.
+     * The native library exposes no progress callback nor cancellation, so operations with a listener are run by the java engine.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @param listener Listener notified of the progress, null to use the native library.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    @Override
+    public void unpack(Path archive, Path destinationDirectory, ProgressListener listener) {
+        if (listener == null) {
+            unpack(archive, destinationDirectory);
+        } else {
+            JAVA_ENGINE.unpack(archive, destinationDirectory, listener);
+        }
+    }
+
+    /**
+     * Unarchive an archive into a directory using several threads.
+     * The native decompression is single threaded, so the parallel extraction is done by the java engine,
+     * a sequential parallelism uses the native library.
+     *
+     * @param archive The path to the archive file.
+     * @param destinationDirectory The directory where the files will be extracted.
+     * @param parallelism Maximum number of threads and memory budget for the decoders.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    @Override
+    public void unpack(Path archive, Path destinationDirectory, Parallelism parallelism) {
+        if (parallelism.isSequential()) {
+            unpack(archive, destinationDirectory);
+        } else {
+            JAVA_ENGINE.unpack(archive, destinationDirectory, parallelism);
         }
     }
 
+    /**
+     * Compress contents read from streams into an archive written to a stream.
+     * The native library only reads and writes files, so streams are handled by the java engine.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param output Stream receiving the archive, it is not closed.
+     */
+    @Override
+    public void pack(List<EntrySource> sources, ArchiveFormat format, OutputStream output) {
+        JAVA_ENGINE.pack(sources, format, output);
+    }
+
+    /**
+     * Compress contents read from streams into an archive written to a stream with the given settings.
+     * The native library only reads and writes files, so streams are handled by the java engine.
+     *
+     * @param sources Contents to compress.
+     * @param format Archive format.
+     * @param options Compression settings.
+     * @param output Stream receiving the archive, it is not closed.
+     */
+    @Override
+    public void pack(List<EntrySource> sources, ArchiveFormat format, CompressionOptions options, OutputStream output) {
+        JAVA_ENGINE.pack(sources, format, options, output);
+    }
+
+    /**
+     * Unarchive a specific file from an archive into a stream.
+     * The native library only writes files, so streams are handled by the java engine.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param output Stream receiving the file content, it is not closed.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the archive is not supported, or if the file is not in the archive.
+     */
+    @Override
+    public long unpack(Path archive, String fileName, OutputStream output) {
+        return JAVA_ENGINE.unpack(archive, fileName, output);
+    }
+
+    /**
+     * Unarchive a specific file from an archive into a buffer.
+     * The native library only writes files, so buffers are handled by the java engine.
+     *
+     * @param archive The path to the archive file.
+     * @param fileName The name of the file in the archive.
+     * @param destination Buffer receiving the file content, heap or direct.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the archive is not supported, if the file is not in the archive,
+     * or if the buffer remaining space is smaller than the file.
+     */
+    @Override
+    public int unpack(Path archive, String fileName, ByteBuffer destination) {
+        return JAVA_ENGINE.unpack(archive, fileName, destination);
+    }
+
+    /**
+     * Unarchive an archive read from a channel into a directory.
+     * The native library only reads files, so channels are handled by the java engine.
+     *
+     * @param archive Channel to the archive, it is not closed.
+     * @param format Archive format.
+     * @param destinationDirectory The directory where the files will be extracted.
+     */
+    @Override
+    public void unpack(SeekableByteChannel archive, ArchiveFormat format, Path destinationDirectory) {
+        JAVA_ENGINE.unpack(archive, format, destinationDirectory);
+    }
+
+    /**
+     * Add, replace or remove entries of an existing zip archive.
+     * The native library can only create archives, so updates are handled by the java engine.
+     *
+     * @param archive The path to the archive file.
+     * @param entries Contents to add, an entry with the same name as an existing one replaces it.
+     * @param removedNames Names of the entries to remove.
+     * @throws IllegalArgumentException If the archive is not a .zip file, or if a removed entry is not in the archive.
+     */
+    @Override
+    public void update(Path archive, List<EntrySource> entries, Collection<String> removedNames) {
+        JAVA_ENGINE.update(archive, entries, removedNames);
+    }
+
+    /**
+     * Verify the integrity of an archive.
+     * The native library can only extract to files, so verifications are handled by the java engine.
+     *
+     * @param archive The path to the archive file.
+     * @param parallelism Maximum number of threads and memory budget for the decoders.
+     * @return The verification result.
+     * @throws IllegalArgumentException If the archive is not supported.
+     */
+    @Override
+    public VerificationReport verify(Path archive, Parallelism parallelism) {
+        return JAVA_ENGINE.verify(archive, parallelism);
+    }
+
+    /**
+     * Unarchive a specific file from an archive read from a channel into a stream.
+     * The native library only reads files, so channels are handled by the java engine.
+     *
+     * @param archive Channel to the archive, it is not closed.
+     * @param format Archive format.
+     * @param fileName The name of the file in the archive.
+     * @param output Stream receiving the file content, it is not closed.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the file is not in the archive.
+     */
+    @Override
+    public long unpack(SeekableByteChannel archive, ArchiveFormat format, String fileName, OutputStream output) {
+        return JAVA_ENGINE.unpack(archive, format, fileName, output);
+    }
+
+    private void unarchiveZip(Path archive, Path destinationDirectory) {
+        invoke(SevenZipNativeBindings.DECOMPRESS_ZIP, archive, destinationDirectory, ArchiveOperationException.Operation.UNPACK);
+    }
+
+    private void unarchiveZip(Path archive, String fileName, Path destinationDirectory) {
+        invoke(SevenZipNativeBindings.DECOMPRESS_FILE_ZIP, archive, fileName, destinationDirectory);
+    }
+
+    private void unarchive7z(Path archive, Path destinationDirectory) {
+        invoke(SevenZipNativeBindings.DECOMPRESS_7Z, archive, destinationDirectory, ArchiveOperationException.Operation.UNPACK);
+    }
+
+    private void unarchive7z(Path archive, String fileName, Path destinationDirectory) {
+        invoke(SevenZipNativeBindings.DECOMPRESS_FILE_7Z, archive, fileName, destinationDirectory);
+    }
+
     /**
      * Compress a single file into an archive.
      *
      * @param source The path to the file to compress.
      * @param archive The path to the archive file.
-     * @throws IllegalArgumentException If the native library or the runtime library cannot be loaded.
+     * @throws IllegalArgumentException If the archive is not supported, or if the native library directory is not configured.
+     * @throws ArchiveOperationException If the native library cannot be loaded, with the reason LIBRARY_NOT_FOUND,
+     * or if the native function fails.
      */
     @Override
     public final void pack(Path source, Path archive) {
-        init();
+        init(ArchiveOperationException.Operation.PACK, source + " to " + archive);
         if(archive.toString().endsWith(".7z")) {
             pack7Z(source, archive);
         } else if(archive.toString().endsWith(".zip")) {
@@ -313,77 +431,66 @@ public class SevenZipArchiver implements Archiver {
     }
 
     private void pack7Z(Path source, Path archive) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("compressSingleFile7z").ifPresentOrElse(c -> {
-                var compressSingleFileFunction = Linker.nativeLinker().downcallHandle(c, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS));
-                try {
-                    var result = (int) compressSingleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            session.allocateFrom(source.toString()),
-                            session.allocateFrom(archive.toString()));
-                    if(result > 0) {
-                        logError(result, "Archive single file: " + source + " to " + archive);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: compressSingleFile");
-            });
-        }
+        invoke(SevenZipNativeBindings.COMPRESS_SINGLE_FILE_7Z, source, archive, ArchiveOperationException.Operation.PACK);
     }
 
     private void packZip(Path source, Path archive) {
-        try (var session = Arena.ofConfined()) {
-            var lk = SymbolLookup.libraryLookup(lib, session);
-            lk.find("compressSingleFileZip").ifPresentOrElse(c -> {
-                var compressSingleFileFunction = Linker.nativeLinker().downcallHandle(c, FunctionDescriptor.of(
-                        ValueLayout.JAVA_INT,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS,
-                        ValueLayout.ADDRESS));
-                try {
-                    var result = (int) compressSingleFileFunction.invokeExact(
-                            session.allocateFrom(this.sevenzipFile.toString()),
-                            session.allocateFrom(source.toString()),
-                            session.allocateFrom(archive.toString()));
-                    if(result > 0) {
-                        logError(result, "Archive single file: " + source + " to " + archive);
-                    }
-                } catch (Throwable e) {
-                    System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "", e);
-                }
-            }, () -> {
-                throw new IllegalArgumentException("Function not found: compressSingleFile");
-            });
-        }
+        invoke(SevenZipNativeBindings.COMPRESS_SINGLE_FILE_ZIP, source, archive, ArchiveOperationException.Operation.PACK);
     }
 
+    private static void invoke(MethodHandle function, Path source, Path destination, ArchiveOperationException.Operation operation) {
+        var context = source + " to " + destination;
+        var start = System.nanoTime();
+        int result;
+        try {
+            var sourceName = source.toString();
+            var destinationName = destination.toString();
+            var scratch = NativeScratch.allocator(NativeScratch.sizeOf(sourceName, destinationName));
+            result = (int) function.invokeExact(
+                    SevenZipNativeBindings.SEVEN_ZIP_LIBRARY,
+                    scratch.allocateFrom(sourceName),
+                    scratch.allocateFrom(destinationName));
+        } catch (Throwable e) {
+            throw new ArchiveOperationException(operation, context, since(start), e);
+        }
+        check(result, operation, context, start);
+    }
 
+    private static void invoke(MethodHandle function, Path archive, String fileName, Path destinationDirectory) {
+        var context = fileName + " from " + archive + " to " + destinationDirectory;
+        var start = System.nanoTime();
+        int result;
+        try {
+            var archiveName = archive.toString();
+            var destinationName = destinationDirectory.toString();
+            var scratch = NativeScratch.allocator(NativeScratch.sizeOf(archiveName, fileName, destinationName));
+            result = (int) function.invokeExact(
+                    SevenZipNativeBindings.SEVEN_ZIP_LIBRARY,
+                    scratch.allocateFrom(archiveName),
+                    scratch.allocateFrom(fileName),
+                    scratch.allocateFrom(destinationName));
+        } catch (Throwable e) {
+            throw new ArchiveOperationException(ArchiveOperationException.Operation.UNPACK, context, since(start), e);
+        }
+        check(result, ArchiveOperationException.Operation.UNPACK, context, start);
+    }
 
-    private static void logError(int errorCode, String context) {
-        switch (errorCode) {
-            case 0:
-                break;
-            case 1:
-                System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "Destination file already exists " + context);
-                break;
-            case 2:
-                System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "File not found " + context);
-                break;
-            case 9:
-                System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "Archive file does not exists " + context);
-                break;
-            case 126:
-                System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR, "7z Native library cannot be found in " + System.getProperty("NATIVE_7Z_PATH") + " to " + context);
-                break;
-            default:
-                System.getLogger(SevenZipArchiver.class.getName()).log(System.Logger.Level.ERROR,"Unknown error code: " + errorCode + " : " + context);
+    /**
+     * Check the code returned by a native function.
+     *
+     * @param errorCode Returned code, 0 on success.
+     * @param operation Invoked operation.
+     * @param context Description of the operation arguments.
+     * @param start Operation start, in System.nanoTime() scale.
+     * @throws ArchiveOperationException If the code is an error.
+     */
+    private static void check(int errorCode, ArchiveOperationException.Operation operation, String context, long start) {
+        if (errorCode != 0) {
+            throw new ArchiveOperationException(operation, errorCode, context, since(start));
         }
     }
+
+    private static Duration since(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
 }
@@ -20,11 +20,13 @@ import be.yildizgames.module.compression.Archiver;
 import be.yildizgames.module.compression.ArchiverProvider;
 
 /**
+ * Provide the native archiver when the NATIVE_7Z_PATH property is set, the pure java archiver otherwise.
+ *
  * @author Grégory Van den Borre
  */
 public class SevenZipArchiverProvider implements ArchiverProvider {
 
-    private static final Archiver INSTANCE = new SevenZipArchiver();
+    private static final ArchiverEngine INSTANCE = SevenZipNativeLibrary.isConfigured() ? new SevenZipArchiver() : new JavaSevenZipArchiver();
 
     public SevenZipArchiverProvider() {
         super();
@@ -34,4 +36,32 @@ public class SevenZipArchiverProvider implements ArchiverProvider {
     public Archiver getArchiver() {
         return INSTANCE;
     }
+
+    /**
+     * @return The archiver, with the operations specific to this module.
+     */
+    public ArchiverEngine getArchiverEngine() {
+        return INSTANCE;
+    }
+
+    /**
+     * Create an asynchronous archiver running the operations of the shared archiver on a bounded pool.
+     *
+     * @param concurrency Maximum number of operations running at once.
+     * @param queueCapacity Maximum number of operations waiting for a thread.
+     * @return The created archiver, to be closed once not used anymore.
+     */
+    public AsyncArchiver newAsyncArchiver(int concurrency, int queueCapacity) {
+        return new AsyncArchiver(INSTANCE, concurrency, queueCapacity);
+    }
+
+    /**
+     * Provide the shared archiver, measuring its operations.
+     *
+     * @param listener Listener receiving the measures, for example an ArchiveStatistics.
+     * @return The instrumented archiver.
+     */
+    public ArchiverEngine getArchiverEngine(MetricsListener listener) {
+        return new InstrumentedArchiver(INSTANCE, listener);
+    }
 }
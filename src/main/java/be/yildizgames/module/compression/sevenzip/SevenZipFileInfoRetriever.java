@@ -16,32 +16,38 @@
 package be.yildizgames.module.compression.sevenzip;
 
 import be.yildizgames.common.hashing.Algorithm;
-import be.yildizgames.common.hashing.FileHash;
-import be.yildizgames.common.hashing.HashingFactory;
 import be.yildizgames.module.compression.FileInfo;
-import be.yildizgames.module.compression.FileInfoRetriever;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZFile;
 import org.apache.commons.compress.archivers.sevenz.SevenZFileOptions;
 
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class will provide the file infos from a 7zip archive.
+ * Link entries to a file of the archive are described by the content of their target.
  *
  * @author Grégory Van den Borre
  */
-public class SevenZipFileInfoRetriever implements FileInfoRetriever {
+public class SevenZipFileInfoRetriever implements ArchiveInfoRetriever {
 
     /**
-     * Path of the archive, never null.
+     * Open the archive, never null.
      */
-    private final Path path;
+    private final ArchiveIO.ChannelSource source;
+
+    /**
+     * Name of the archive, used in error messages.
+     */
+    private final String name;
 
     /**
      * Construct a new instance.
@@ -49,24 +55,80 @@ public class SevenZipFileInfoRetriever implements FileInfoRetriever {
      * @param path Path of the archive, cannot be null.
      */
     public SevenZipFileInfoRetriever(final Path path) {
+        this(ArchiveIO.source(Objects.requireNonNull(path)), path.toString());
+    }
+
+    /**
+     * Construct a new instance reading an archive from a channel, for example a MemorySegmentChannel over an archive held in memory.
+     * The channel is not closed, it must not be used by anything else while the retriever reads it.
+     *
+     * @param channel Channel to the archive, cannot be null.
+     */
+    public SevenZipFileInfoRetriever(final SeekableByteChannel channel) {
+        this(ArchiveIO.source(Objects.requireNonNull(channel)), channel.toString());
+    }
+
+    private SevenZipFileInfoRetriever(final ArchiveIO.ChannelSource source, final String name) {
         super();
-        this.path = Objects.requireNonNull(path);
+        this.source = source;
+        this.name = name;
     }
 
     @Override
     public final List<FileInfo> getFileInfo(Algorithm... algorithms) {
-        if (algorithms == null || algorithms.length == 0) {
-            return noCompute();
+        try (var stream = streamFileInfo(algorithms)) {
+            return stream.toList();
         }
-        return computeHashes(algorithms);
     }
 
-    private List<FileInfo> noCompute() {
-        var result = new ArrayList<FileInfo>();
-        try (var sevenZFile = new SevenZFile(this.path.toFile(), SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build())) {
+    /**
+     * Each entry is decompressed only once whatever the number of algorithms.
+     * CRC32 is read from the archive header, entries are not decompressed at all if it is the only algorithm.
+     */
+    @Override
+    public final Stream<FileInfo> streamFileInfo(Algorithm... algorithms) {
+        var sevenZFile = open();
+        Map<String, SevenZArchiveEntry> links;
+        try {
+            links = Deduplicator.linkTargets(sevenZFile);
+        } catch (IOException | RuntimeException e) {
+            try {
+                sevenZFile.close();
+            } catch (IOException ce) {
+                e.addSuppressed(ce);
+            }
+            throw new IllegalStateException(e);
+        }
+        var hasher = new EntryHasher(algorithms);
+        return StreamSupport.stream(sevenZFile.getEntries().spliterator(), false)
+                .filter(e -> !e.isDirectory())
+                .map(e -> {
+                    var data = links.getOrDefault(e.getName(), e);
+                    return hasher.compute(e.getName(), hasStoredCrc(data) ? storedCrc(data) : -1, h -> h.compute(sevenZFile.getInputStream(data), data.getSize()));
+                })
+                .onClose(() -> {
+                    hasher.close();
+                    try {
+                        sevenZFile.close();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
+
+    @Override
+    public final List<EntryInfo> getEntryInfo() {
+        var result = new ArrayList<EntryInfo>();
+        try (var sevenZFile = open()) {
+            var links = Deduplicator.linkTargets(sevenZFile);
             for (var e : sevenZFile.getEntries()) {
                 if (!e.isDirectory()) {
-                    result.add(new FileInfo(e.getName(), List.of()));
+                    var data = links.getOrDefault(e.getName(), e);
+                    result.add(new EntryInfo(
+                            e.getName(),
+                            data.getSize(),
+                            e.getHasLastModifiedDate() ? e.getLastModifiedTime().toInstant() : null,
+                            hasStoredCrc(data) ? storedCrc(data) : -1));
                 }
             }
         } catch (IOException e) {
@@ -75,28 +137,22 @@ public class SevenZipFileInfoRetriever implements FileInfoRetriever {
         return result;
     }
 
-    private List<FileInfo> computeHashes(Algorithm... algorithms) {
-        var result = new ArrayList<FileInfo>();
-        Map<String, List<FileHash>> hashes = new HashMap<>();
-        for (var a : algorithms) {
-            try (var sevenZFile = new SevenZFile(this.path.toFile(), SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build())) {
-                for (var e : sevenZFile.getEntries()) {
-                    if (!e.isDirectory()) {
-                        var is = sevenZFile.getInputStream(e);
-                        var hash = HashingFactory.get(a).compute(is, (int) e.getSize());
-                        if (!hashes.containsKey(e.getName())) {
-                            hashes.put(e.getName(), new ArrayList<>());
-                        }
-                        hashes.get(e.getName()).add(hash);
-                    }
-                }
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
-            }
-        }
-        for(var entry : hashes.entrySet()) {
-            result.add(new FileInfo(entry.getKey(), entry.getValue()));
+    private SevenZFile open() {
+        try {
+            return new SevenZFile(this.source.open(), this.name, SevenZFileOptions.builder().withTryToRecoverBrokenArchives(true).build());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
         }
-        return result;
+    }
+
+    /**
+     * Empty files have no stream and no CRC in the header, their CRC is 0.
+     */
+    private static boolean hasStoredCrc(SevenZArchiveEntry entry) {
+        return entry.getHasCrc() || !entry.hasStream();
+    }
+
+    private static long storedCrc(SevenZArchiveEntry entry) {
+        return entry.hasStream() ? entry.getCrcValue() : 0;
     }
 }
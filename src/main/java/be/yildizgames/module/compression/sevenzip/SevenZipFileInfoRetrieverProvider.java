@@ -20,26 +20,72 @@ import be.yildizgames.module.compression.FileInfoRetriever;
 import be.yildizgames.module.compression.FileInfoRetrieverProvider;
 
 import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
+ * Provide the retrievers for 7z and zip archives.
+ * Retrievers share an index cache, repeated queries on an unchanged archive do not read it again.
+ *
  * @author Grégory Van den Borre
  */
 public class SevenZipFileInfoRetrieverProvider implements FileInfoRetrieverProvider {
 
+    /**
+     * Maximum number of entries kept in the shared cache, for all archives.
+     */
+    private static final long CACHE_WEIGHT = 100_000;
+
+    private static final ArchiveIndexCache CACHE = new ArchiveIndexCache(CACHE_WEIGHT);
+
     public SevenZipFileInfoRetrieverProvider() {
         super();
     }
 
     @Override
     public FileInfoRetriever getFileInfoRetriever(Path archive) {
+        return retriever(archive);
+    }
+
+    private ArchiveInfoRetriever retriever(Path archive) {
         if(archive.toString().endsWith(".7z")) {
-            return new SevenZipFileInfoRetriever(archive);
+            return new CachedArchiveInfoRetriever(archive, new SevenZipFileInfoRetriever(archive), CACHE);
         } else if(archive.toString().endsWith(".zip")) {
-            return new ZipFileInfoRetriever(archive);
+            return new CachedArchiveInfoRetriever(archive, new ZipFileInfoRetriever(archive), CACHE);
         } else {
             throw new IllegalArgumentException("Only .7z or .zip archives are supported");
         }
     }
 
+    /**
+     * Provide a retriever hashing the entries in parallel when the archive format allows it.
+     *
+     * @param archive Path of the archive.
+     * @param executor Executor running the entries hashing.
+     * @return The retriever for the archive.
+     */
+    public FileInfoRetriever getFileInfoRetriever(Path archive, Executor executor) {
+        if(archive.toString().endsWith(".zip")) {
+            return new CachedArchiveInfoRetriever(archive, new ZipFileInfoRetriever(archive, executor), CACHE);
+        }
+        return getFileInfoRetriever(archive);
+    }
 
+    /**
+     * Provide a retriever reporting the duration of its reads to a listener, and as flight recorder events.
+     *
+     * @param archive Path of the archive.
+     * @param listener Listener receiving the measures.
+     * @return The retriever for the archive.
+     */
+    public ArchiveInfoRetriever getFileInfoRetriever(Path archive, MetricsListener listener) {
+        return new InstrumentedArchiveInfoRetriever(archive, retriever(archive), Objects.requireNonNull(listener));
+    }
+
+    /**
+     * @return The cache shared by the provided retrievers, to get its statistics or clear it.
+     */
+    public ArchiveIndexCache getCache() {
+        return CACHE;
+    }
 }
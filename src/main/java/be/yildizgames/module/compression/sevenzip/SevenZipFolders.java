@@ -0,0 +1,436 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.tukaani.xz.LZMA2InputStream;
+import org.tukaani.xz.LZMAInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read which folder holds each entry of a 7z archive, and where the folders are in the archive file, commons-compress does not expose it.
+ * Only the part of the header describing the packed streams, the folders and their number of entries is parsed,
+ * an encoded header is decoded first when it is stored, or compressed with LZMA or LZMA2.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SevenZipFolders {
+
+    private static final byte[] SIGNATURE = {'7', 'z', (byte) 0xBC, (byte) 0xAF, 0x27, 0x1C};
+
+    private static final int SIGNATURE_HEADER_SIZE = 32;
+
+    /**
+     * Maximum size of a header, larger headers are not read.
+     */
+    private static final int MAX_HEADER_SIZE = 64 * 1024 * 1024;
+
+    private static final int END = 0x00;
+
+    private static final int HEADER = 0x01;
+
+    private static final int ARCHIVE_PROPERTIES = 0x02;
+
+    private static final int ADDITIONAL_STREAMS_INFO = 0x03;
+
+    private static final int MAIN_STREAMS_INFO = 0x04;
+
+    private static final int PACK_INFO = 0x06;
+
+    private static final int UNPACK_INFO = 0x07;
+
+    private static final int SUB_STREAMS_INFO = 0x08;
+
+    private static final int SIZE = 0x09;
+
+    private static final int CRC = 0x0A;
+
+    private static final int FOLDER = 0x0B;
+
+    private static final int CODERS_UNPACK_SIZE = 0x0C;
+
+    private static final int NUM_UNPACK_STREAM = 0x0D;
+
+    private static final int ENCODED_HEADER = 0x17;
+
+    private SevenZipFolders() {
+        super();
+    }
+
+    /**
+     * Read the folder holding each entry.
+     *
+     * @param archive Archive to read.
+     * @param entries Entries of the archive, in the archive order.
+     * @return The index of the folder holding each entry, -1 for the entries without content,
+     * null if the header cannot be read, for example when it is encrypted.
+     */
+    static int[] read(Path archive, List<SevenZArchiveEntry> entries) {
+        try (var channel = FileChannel.open(archive)) {
+            var info = readStreams(channel);
+            return info == null ? null : assign(info, entries);
+        } catch (IOException | RuntimeException e) {
+            // Unsupported or corrupt header, the folder layout stays unknown.
+            return null;
+        }
+    }
+
+    /**
+     * Find the entries stored without compression alone in their folder, their content can be read directly from the archive file.
+     *
+     * @param archive Archive to read.
+     * @param entries Entries of the archive, in the archive order.
+     * @return The position of the content of each entry in the archive file, -1 for the entries without content,
+     * compressed or sharing their folder, null if the header cannot be read.
+     */
+    static long[] storedPositions(Path archive, List<SevenZArchiveEntry> entries) {
+        try (var channel = FileChannel.open(archive)) {
+            var info = readStreams(channel);
+            if (info == null) {
+                return null;
+            }
+            var folderPositions = new long[info.folders().size()];
+            var position = SIGNATURE_HEADER_SIZE + info.packPosition();
+            var packIndex = 0;
+            for (int i = 0; i < folderPositions.length; i++) {
+                var folder = info.folders().get(i);
+                var stored = folder.coders().size() == 1
+                        && Arrays.equals(folder.coders().getFirst().id(), new byte[]{0x00})
+                        && info.unpackStreams()[i] == 1
+                        && info.packSizes()[packIndex] == folder.unpackSizes()[0];
+                folderPositions[i] = stored ? position : -1;
+                for (int j = 0; j < folder.packedStreams(); j++) {
+                    position += info.packSizes()[packIndex++];
+                }
+            }
+            var folders = assign(info, entries);
+            var result = new long[folders.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = folders[i] < 0 ? -1 : folderPositions[folders[i]];
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // Unsupported or corrupt header, the entries are decoded.
+            return null;
+        }
+    }
+
+    /**
+     * Read the streams info of the archive header.
+     *
+     * @return The streams info, null if the header is not supported.
+     */
+    private static StreamsInfo readStreams(FileChannel channel) throws IOException {
+        var start = readFully(channel, 0, SIGNATURE_HEADER_SIZE);
+        var signature = new byte[SIGNATURE.length];
+        start.get(signature);
+        if (!Arrays.equals(SIGNATURE, signature)) {
+            return null;
+        }
+        start.position(12);
+        var offset = start.getLong();
+        var size = start.getLong();
+        if (offset < 0 || size <= 0 || size > MAX_HEADER_SIZE) {
+            return null;
+        }
+        var header = readFully(channel, SIGNATURE_HEADER_SIZE + offset, (int) size);
+        var type = header.get() & 0xFF;
+        if (type == ENCODED_HEADER) {
+            header = decode(channel, readStreamsInfo(header));
+            if (header == null) {
+                return null;
+            }
+            type = header.get() & 0xFF;
+        }
+        if (type != HEADER) {
+            return null;
+        }
+        return readHeader(header);
+    }
+
+    /**
+     * Assign the entries with a content to the folders, each folder holds its number of unpack streams, in the archive order.
+     */
+    private static int[] assign(StreamsInfo info, List<SevenZArchiveEntry> entries) throws IOException {
+        var result = new int[entries.size()];
+        var folder = -1;
+        var remaining = 0L;
+        for (int i = 0; i < result.length; i++) {
+            if (!entries.get(i).hasStream()) {
+                result[i] = -1;
+                continue;
+            }
+            while (remaining == 0) {
+                folder++;
+                if (folder >= info.folders().size()) {
+                    throw new IOException("More entries than folder streams");
+                }
+                remaining = info.unpackStreams()[folder];
+            }
+            result[i] = folder;
+            remaining--;
+        }
+        return result;
+    }
+
+    private static StreamsInfo readHeader(ByteBuffer header) throws IOException {
+        var id = header.get() & 0xFF;
+        if (id == ARCHIVE_PROPERTIES) {
+            while ((header.get() & 0xFF) != END) {
+                skip(header, readNumber(header));
+            }
+            id = header.get() & 0xFF;
+        }
+        if (id == ADDITIONAL_STREAMS_INFO) {
+            throw new IOException("Additional streams not supported");
+        }
+        if (id != MAIN_STREAMS_INFO) {
+            // An archive without main streams has no folder.
+            return new StreamsInfo(0, new long[0], List.of(), new long[0]);
+        }
+        return readStreamsInfo(header);
+    }
+
+    /**
+     * Read the pack and unpack info, and the number of entries of each folder, the rest of the streams info is not needed.
+     */
+    private static StreamsInfo readStreamsInfo(ByteBuffer header) throws IOException {
+        var packPosition = 0L;
+        var packSizes = new long[0];
+        List<Folder> folders = List.of();
+        var id = header.get() & 0xFF;
+        if (id == PACK_INFO) {
+            packPosition = readNumber(header);
+            packSizes = new long[toInt(readNumber(header))];
+            for (id = header.get() & 0xFF; id != END; id = header.get() & 0xFF) {
+                if (id == SIZE) {
+                    for (int i = 0; i < packSizes.length; i++) {
+                        packSizes[i] = readNumber(header);
+                    }
+                } else if (id == CRC) {
+                    skipDigests(header, packSizes.length);
+                } else {
+                    throw new IOException("Unexpected pack info property: " + id);
+                }
+            }
+            id = header.get() & 0xFF;
+        }
+        if (id == UNPACK_INFO) {
+            folders = readUnpackInfo(header);
+            id = header.get() & 0xFF;
+        }
+        var unpackStreams = new long[folders.size()];
+        Arrays.fill(unpackStreams, 1);
+        if (id == SUB_STREAMS_INFO && (header.get() & 0xFF) == NUM_UNPACK_STREAM) {
+            for (int i = 0; i < unpackStreams.length; i++) {
+                unpackStreams[i] = readNumber(header);
+            }
+        }
+        return new StreamsInfo(packPosition, packSizes, folders, unpackStreams);
+    }
+
+    private static List<Folder> readUnpackInfo(ByteBuffer header) throws IOException {
+        if ((header.get() & 0xFF) != FOLDER) {
+            throw new IOException("Folders expected");
+        }
+        var count = toInt(readNumber(header));
+        if (header.get() != 0) {
+            throw new IOException("External folders not supported");
+        }
+        var folders = new ArrayList<Folder>(count);
+        for (int i = 0; i < count; i++) {
+            folders.add(readFolder(header));
+        }
+        if ((header.get() & 0xFF) != CODERS_UNPACK_SIZE) {
+            throw new IOException("Unpack sizes expected");
+        }
+        for (var folder : folders) {
+            for (int i = 0; i < folder.unpackSizes().length; i++) {
+                folder.unpackSizes()[i] = readNumber(header);
+            }
+        }
+        for (var id = header.get() & 0xFF; id != END; id = header.get() & 0xFF) {
+            if (id != CRC) {
+                throw new IOException("Unexpected unpack info property: " + id);
+            }
+            skipDigests(header, count);
+        }
+        return folders;
+    }
+
+    private static Folder readFolder(ByteBuffer header) throws IOException {
+        var coderCount = toInt(readNumber(header));
+        var coders = new ArrayList<Coder>(coderCount);
+        var inputs = 0L;
+        var outputs = 0L;
+        for (int i = 0; i < coderCount; i++) {
+            var flags = header.get() & 0xFF;
+            if ((flags & 0x80) != 0) {
+                throw new IOException("Alternative coder methods not supported");
+            }
+            var id = new byte[flags & 0x0F];
+            header.get(id);
+            if ((flags & 0x10) != 0) {
+                inputs += readNumber(header);
+                outputs += readNumber(header);
+            } else {
+                inputs++;
+                outputs++;
+            }
+            var properties = new byte[0];
+            if ((flags & 0x20) != 0) {
+                properties = new byte[toInt(readNumber(header))];
+                header.get(properties);
+            }
+            coders.add(new Coder(id, properties));
+        }
+        var bindPairs = outputs - 1;
+        for (long i = 0; i < bindPairs; i++) {
+            readNumber(header);
+            readNumber(header);
+        }
+        var packedStreams = inputs - bindPairs;
+        if (packedStreams > 1) {
+            for (long i = 0; i < packedStreams; i++) {
+                readNumber(header);
+            }
+        }
+        return new Folder(coders, new long[toInt(outputs)], toInt(packedStreams));
+    }
+
+    /**
+     * Decode an encoded header, only single coder folders compressed with LZMA or LZMA2, or stored, are supported.
+     *
+     * @return The decoded header, null if it is not supported.
+     */
+    private static ByteBuffer decode(FileChannel channel, StreamsInfo info) throws IOException {
+        if (info.folders().size() != 1 || info.packSizes().length != 1 || info.folders().getFirst().coders().size() != 1) {
+            return null;
+        }
+        var folder = info.folders().getFirst();
+        var coder = folder.coders().getFirst();
+        var size = folder.unpackSizes()[0];
+        if (size <= 0 || size > MAX_HEADER_SIZE) {
+            return null;
+        }
+        channel.position(SIGNATURE_HEADER_SIZE + info.packPosition());
+        var packed = new BufferedInputStream(Channels.newInputStream(channel));
+        InputStream in;
+        if (Arrays.equals(coder.id(), new byte[]{0x00})) {
+            in = packed;
+        } else if (Arrays.equals(coder.id(), new byte[]{0x21}) && coder.properties().length == 1) {
+            in = new LZMA2InputStream(packed, lzma2DictionarySize(coder.properties()[0] & 0xFF));
+        } else if (Arrays.equals(coder.id(), new byte[]{0x03, 0x01, 0x01}) && coder.properties().length == 5) {
+            var dictionarySize = ByteBuffer.wrap(coder.properties(), 1, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            in = new LZMAInputStream(packed, size, coder.properties()[0], dictionarySize);
+        } else {
+            return null;
+        }
+        var result = in.readNBytes((int) size);
+        if (result.length != size) {
+            throw new EOFException("Truncated header");
+        }
+        return ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int lzma2DictionarySize(int properties) throws IOException {
+        if (properties >= 38) {
+            throw new IOException("Unsupported LZMA2 dictionary size: " + properties);
+        }
+        return (2 | (properties & 1)) << (properties / 2 + 11);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        var buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Read a 7z number, the count of leading one bits of the first byte gives the number of following little endian bytes.
+     */
+    static long readNumber(ByteBuffer header) {
+        var first = header.get() & 0xFF;
+        var mask = 0x80;
+        var value = 0L;
+        for (int i = 0; i < 8; i++) {
+            if ((first & mask) == 0) {
+                return value | ((long) (first & (mask - 1)) << (8 * i));
+            }
+            value |= (long) (header.get() & 0xFF) << (8 * i);
+            mask >>>= 1;
+        }
+        return value;
+    }
+
+    private static void skipDigests(ByteBuffer header, int count) {
+        var defined = count;
+        if (header.get() == 0) {
+            defined = 0;
+            for (int i = 0; i < (count + 7) / 8; i++) {
+                defined += Integer.bitCount(header.get() & 0xFF);
+            }
+        }
+        skip(header, 4L * defined);
+    }
+
+    private static void skip(ByteBuffer header, long length) {
+        header.position(Math.addExact(header.position(), toInt(length)));
+    }
+
+    private static int toInt(long value) {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid header value: " + value);
+        }
+        return (int) value;
+    }
+
+    private record Coder(byte[] id, byte[] properties) {
+    }
+
+    /**
+     * @param unpackSizes Size of each output stream of the folder.
+     * @param packedStreams Number of packed streams read by the folder.
+     */
+    private record Folder(List<Coder> coders, long[] unpackSizes, int packedStreams) {
+    }
+
+    /**
+     * @param packPosition Position of the first packed stream, after the signature header.
+     * @param packSizes Size of each packed stream.
+     * @param folders Folders, in the archive order.
+     * @param unpackStreams Number of entries held by each folder.
+     */
+    private record StreamsInfo(long packPosition, long[] packSizes, List<Folder> folders, long[] unpackStreams) {
+    }
+}
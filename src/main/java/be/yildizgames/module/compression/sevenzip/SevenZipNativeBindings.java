@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Native entry points of the libmodule_compression_7z library.
+ * The library is loaded only once in the global arena, and every function is resolved only once when this class is initialized,
+ * callers only have to allocate the arguments of each invocation.
+ * All the fields are immutable once the class is initialized, and the JVM initializes it only once, so the bindings can be used from any thread.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SevenZipNativeBindings {
+
+    /**
+     * Function signature for (7z library, source, destination).
+     */
+    private static final FunctionDescriptor SINGLE_PATH = FunctionDescriptor.of(
+            ValueLayout.JAVA_INT,
+            ValueLayout.ADDRESS,
+            ValueLayout.ADDRESS,
+            ValueLayout.ADDRESS);
+
+    /**
+     * Function signature for (7z library, archive, file name, destination).
+     */
+    private static final FunctionDescriptor SINGLE_ENTRY = FunctionDescriptor.of(
+            ValueLayout.JAVA_INT,
+            ValueLayout.ADDRESS,
+            ValueLayout.ADDRESS,
+            ValueLayout.ADDRESS,
+            ValueLayout.ADDRESS);
+
+    /**
+     * Function signature for (7z library, sources, number of sources, destination).
+     */
+    private static final FunctionDescriptor MULTIPLE_PATHS = FunctionDescriptor.of(
+            ValueLayout.JAVA_INT,
+            ValueLayout.ADDRESS,
+            ValueLayout.ADDRESS,
+            ValueLayout.JAVA_INT,
+            ValueLayout.ADDRESS);
+
+    /**
+     * Path of the 7z library, as a native string, allocated in the global arena.
+     */
+    static final MemorySegment SEVEN_ZIP_LIBRARY;
+
+    static final MethodHandle COMPRESS_SINGLE_FILE_7Z;
+
+    static final MethodHandle COMPRESS_MULTIPLE_FILES_7Z;
+
+    static final MethodHandle COMPRESS_SINGLE_FILE_ZIP;
+
+    static final MethodHandle COMPRESS_MULTIPLE_FILES_ZIP;
+
+    static final MethodHandle DECOMPRESS_7Z;
+
+    static final MethodHandle DECOMPRESS_FILE_7Z;
+
+    static final MethodHandle DECOMPRESS_ZIP;
+
+    static final MethodHandle DECOMPRESS_FILE_ZIP;
+
+    static {
+        var libDirectory = SevenZipNativeLibrary.directory();
+        System.load(libDirectory.resolve("libgcc_s_seh-1.dll").toString());
+        System.load(libDirectory.resolve("libstdc++-6.dll").toString());
+        var arena = Arena.global();
+        var lookup = SymbolLookup.libraryLookup(libDirectory.resolve("libmodule_compression_7z.dll"), arena);
+        SEVEN_ZIP_LIBRARY = arena.allocateFrom(libDirectory.resolve("7z.dll").toString());
+        COMPRESS_SINGLE_FILE_7Z = downcall(lookup, "compressSingleFile7z", SINGLE_PATH);
+        COMPRESS_MULTIPLE_FILES_7Z = downcall(lookup, "compressMultipleFiles7z", MULTIPLE_PATHS);
+        COMPRESS_SINGLE_FILE_ZIP = downcall(lookup, "compressSingleFileZip", SINGLE_PATH);
+        COMPRESS_MULTIPLE_FILES_ZIP = downcall(lookup, "compressMultipleFilesZip", MULTIPLE_PATHS);
+        DECOMPRESS_7Z = downcall(lookup, "decompress7z", SINGLE_PATH);
+        DECOMPRESS_FILE_7Z = downcall(lookup, "decompressFile7z", SINGLE_ENTRY);
+        DECOMPRESS_ZIP = downcall(lookup, "decompressZip", SINGLE_PATH);
+        DECOMPRESS_FILE_ZIP = downcall(lookup, "decompressFileZip", SINGLE_ENTRY);
+    }
+
+    private SevenZipNativeBindings() {
+        super();
+    }
+
+    private static MethodHandle downcall(SymbolLookup lookup, String name, FunctionDescriptor descriptor) {
+        return lookup.find(name)
+                .map(f -> Linker.nativeLinker().downcallHandle(f, descriptor))
+                .orElseThrow(() -> new IllegalArgumentException("Function not found: " + name));
+    }
+}
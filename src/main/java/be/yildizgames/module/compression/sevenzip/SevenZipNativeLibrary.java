@@ -0,0 +1,61 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.nio.file.Path;
+
+/**
+ * Location of the native libraries, provided by the NATIVE_7Z_PATH property.
+ * This class does not load anything, so it can be used to check the configuration before the native bindings are initialized.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SevenZipNativeLibrary {
+
+    /**
+     * Name of the property providing the directory for the 7z and libmodule_compression_7z dynamic libraries.
+     */
+    static final String DIRECTORY_PROPERTY = "NATIVE_7Z_PATH";
+
+    private SevenZipNativeLibrary() {
+        super();
+    }
+
+    /**
+     * Check if the native libraries directory is provided.
+     *
+     * @return True if the property is set and not empty.
+     */
+    static boolean isConfigured() {
+        var path = System.getProperty(DIRECTORY_PROPERTY);
+        return path != null && !path.isBlank();
+    }
+
+    /**
+     * Provide the directory containing the native libraries.
+     *
+     * @return The absolute directory path.
+     * @throws IllegalArgumentException If the property is not set or empty.
+     */
+    static Path directory() {
+        if (!isConfigured()) {
+            throw new IllegalArgumentException("Environment variable " + DIRECTORY_PROPERTY + " is not set or empty, " +
+                    "please provide the directory for 7z and libmodule_compression_7z dynamic libraries.");
+        }
+        return Path.of(System.getProperty(DIRECTORY_PROPERTY)).toAbsolutePath();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.FileHash;
+import be.yildizgames.common.hashing.HashingFactory;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Build the CRC32 hash of an entry from the value stored in the archive header, without decompressing the entry.
+ * The hashing API only builds a FileHash from a content, so the hash is computed on a 4 bytes content having exactly the stored CRC32,
+ * the result is then identical to the hash of the real entry content.
+ *
+ * @author Grégory Van den Borre
+ */
+final class StoredCrc {
+
+    /**
+     * Reversed CRC32 polynomial.
+     */
+    private static final int POLYNOMIAL = 0xEDB88320;
+
+    private StoredCrc() {
+        super();
+    }
+
+    /**
+     * Check if an algorithm can be answered from the archive headers.
+     *
+     * @param algorithm Algorithm to check.
+     * @return True for CRC32.
+     */
+    static boolean isStored(Algorithm algorithm) {
+        return algorithm == Algorithm.CRC32;
+    }
+
+    /**
+     * Build the CRC32 hash from a stored value.
+     *
+     * @param crc CRC32 value stored in the archive.
+     * @return The hash, identical to the one computed from the entry content.
+     */
+    static FileHash toFileHash(long crc) {
+        return HashingFactory.get(Algorithm.CRC32).compute(new ByteArrayInputStream(preimage(crc)), 4);
+    }
+
+    /**
+     * Compute 4 bytes whose CRC32 is the given value.
+     * Processing 4 bytes from the initial register is a bijection, it is reversed one bit at a time.
+     *
+     * @param crc Expected CRC32.
+     * @return The 4 bytes content.
+     */
+    static byte[] preimage(long crc) {
+        var register = (int) crc ^ 0xFFFFFFFF;
+        for (int i = 0; i < Integer.SIZE; i++) {
+            if ((register & 0x80000000) != 0) {
+                register = ((register ^ POLYNOMIAL) << 1) | 1;
+            } else {
+                register <<= 1;
+            }
+        }
+        register ^= 0xFFFFFFFF;
+        return new byte[]{(byte) register, (byte) (register >>> 8), (byte) (register >>> 16), (byte) (register >>> 24)};
+    }
+
+    /**
+     * Combine the stored CRC32 with the hashes computed from the entry content.
+     *
+     * @param algorithms Requested algorithms.
+     * @param crc CRC32 stored in the archive.
+     * @param computed Hashes computed from the content for the algorithms not stored, in the same order.
+     * @return The hashes, in the same order as the algorithms.
+     */
+    static List<FileHash> combine(Algorithm[] algorithms, long crc, List<FileHash> computed) {
+        var result = new ArrayList<FileHash>(algorithms.length);
+        var index = 0;
+        for (var a : algorithms) {
+            result.add(isStored(a) ? toFileHash(crc) : computed.get(index++));
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * Retain the algorithms that must be computed from the entry content.
+     *
+     * @param algorithms Requested algorithms.
+     * @return The algorithms not stored in the archive.
+     */
+    static Algorithm[] notStored(Algorithm[] algorithms) {
+        return Arrays.stream(algorithms).filter(a -> !isStored(a)).toArray(Algorithm[]::new);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Result of an archive integrity verification.
+ *
+ * @param archive Verified archive.
+ * @param entries Number of entries verified.
+ * @param bytes Number of uncompressed bytes decoded.
+ * @param corruptEntries Names of the entries that could not be decoded or whose content does not match the stored size or CRC, in the archive order.
+ * @param duration Time spent verifying the archive.
+ *
+ * @author Grégory Van den Borre
+ */
+public record VerificationReport(String archive, int entries, long bytes, List<String> corruptEntries, Duration duration) {
+
+    public VerificationReport {
+        Objects.requireNonNull(archive);
+        corruptEntries = List.copyOf(corruptEntries);
+        Objects.requireNonNull(duration);
+    }
+
+    /**
+     * @return True if no entry is corrupt.
+     */
+    public boolean isValid() {
+        return this.corruptEntries.isEmpty();
+    }
+
+    /**
+     * @return The number of uncompressed bytes decoded per second.
+     */
+    public double throughput() {
+        var nanos = this.duration.toNanos();
+        return nanos == 0 ? 0 : this.bytes * 1_000_000_000.0 / nanos;
+    }
+}
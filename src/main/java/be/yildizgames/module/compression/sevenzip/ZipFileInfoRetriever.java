@@ -13,57 +13,154 @@
  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
+
 package be.yildizgames.module.compression.sevenzip;
 
-import be.yildizgames.module.compression.FileInfoRetriever;
 import be.yildizgames.common.hashing.Algorithm;
-import be.yildizgames.common.hashing.HashingFactory;
 import be.yildizgames.module.compression.FileInfo;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Enumeration;
+import java.util.Collections;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Retrieve info stored in a ZIP archive.
+ * Each entry is inflated only once, whatever the number of algorithms, and not at all when only CRC32 is requested.
+ * When an executor is provided, the entries are inflated and hashed in parallel, the result keeps the central directory order.
+ * Link entries to a file of the archive are described by the content of their target.
  * @author Grégory Van den Borre
  */
-public class ZipFileInfoRetriever implements FileInfoRetriever {
+public class ZipFileInfoRetriever implements ArchiveInfoRetriever {
+
+    /**
+     * Maximum number of entries hashed ahead of the consumer in parallel mode.
+     */
+    private static final int PARALLEL_WINDOW = 256;
+
+    /**
+     * Open the archive, never null.
+     */
+    private final ArchiveIO.ChannelSource source;
 
-    private final Path path;
+    /**
+     * Executor to hash the entries in parallel, null to hash them in the caller thread.
+     */
+    private final Executor executor;
 
     public ZipFileInfoRetriever(Path path) {
+        this(path, null);
+    }
+
+    /**
+     * Create a retriever hashing the entries in parallel.
+     *
+     * @param path Path of the archive, cannot be null.
+     * @param executor Executor running the entries hashing, for example a virtual thread or fork join executor, null to hash in the caller thread.
+     */
+    public ZipFileInfoRetriever(Path path, Executor executor) {
+        this(ArchiveIO.source(Objects.requireNonNull(path)), executor);
+    }
+
+    /**
+     * Create a retriever reading an archive from a channel, for example a MemorySegmentChannel over an archive held in memory.
+     * The channel is not closed, it must not be used by anything else while the retriever reads it.
+     *
+     * @param channel Channel to the archive, cannot be null.
+     * @param executor Executor running the entries hashing, null to hash in the caller thread.
+     */
+    public ZipFileInfoRetriever(SeekableByteChannel channel, Executor executor) {
+        this(ArchiveIO.source(Objects.requireNonNull(channel)), executor);
+    }
+
+    private ZipFileInfoRetriever(ArchiveIO.ChannelSource source, Executor executor) {
         super();
-        this.path = path;
+        this.source = source;
+        this.executor = executor;
     }
 
     @Override
     public final List<FileInfo> getFileInfo(Algorithm... algorithms) {
-        if (algorithms == null) {
-            algorithms = new Algorithm[0];
+        try (var stream = streamFileInfo(algorithms)) {
+            return stream.toList();
         }
-        var result = new ArrayList<FileInfo>();
-        try (ZipFile zip = new ZipFile(path.toFile())) {
-            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
-                ZipEntry entry = e.nextElement();
-                result.add(new FileInfo(entry.getName(), Arrays.stream(algorithms).map(
-                        a -> {
-                            try {
-                                return HashingFactory.get(a).compute(zip.getInputStream(entry));
-                            } catch (IOException ex) {
-                                throw new IllegalStateException(ex);
-                            }
-                        }
-                ).toList()));
+    }
+
+    @Override
+    public final Stream<FileInfo> streamFileInfo(Algorithm... algorithms) {
+        var zip = open();
+        var links = linkTargets(zip);
+        var hasher = new EntryHasher(algorithms);
+        Stream<FileInfo> result;
+        if (this.executor == null || hasher.isHeaderOnly()) {
+            result = Collections.list(zip.getEntries()).stream().map(e -> compute(zip, e, links.getOrDefault(e.getName(), e), hasher));
+        } else {
+            var spliterator = new OrderedWindowSpliterator<ZipArchiveEntry, FileInfo>(zip.getEntries().asIterator(), e -> compute(zip, e, links.getOrDefault(e.getName(), e), hasher), this.executor, PARALLEL_WINDOW);
+            result = StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+        }
+        return result.onClose(() -> {
+            hasher.close();
+            try {
+                zip.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
             }
+        });
+    }
+
+    @Override
+    public final List<EntryInfo> getEntryInfo() {
+        try (var zip = open()) {
+            var links = Deduplicator.linkTargets(zip);
+            return Collections.list(zip.getEntries()).stream().map(e -> new EntryInfo(
+                    e.getName(),
+                    links.getOrDefault(e.getName(), e).getSize(),
+                    e.getLastModifiedTime() == null ? null : e.getLastModifiedTime().toInstant(),
+                    links.getOrDefault(e.getName(), e).getCrc())).toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ZipFile open() {
+        try {
+            return new ZipFile(this.source.open());
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
-        return result;
+    }
+
+    private static Map<String, ZipArchiveEntry> linkTargets(ZipFile zip) {
+        try {
+            return Deduplicator.linkTargets(zip);
+        } catch (IOException | RuntimeException e) {
+            try {
+                zip.close();
+            } catch (IOException ce) {
+                e.addSuppressed(ce);
+            }
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param entry Entry to describe.
+     * @param data Entry holding its content, the target of a link entry, the entry itself otherwise.
+     */
+    private static FileInfo compute(ZipFile zip, ZipArchiveEntry entry, ZipArchiveEntry data, EntryHasher hasher) {
+        return hasher.compute(entry.getName(), data.getCrc(), h -> {
+            try (var is = zip.getInputStream(data)) {
+                return h.compute(is, data.getSize());
+            }
+        });
     }
 }
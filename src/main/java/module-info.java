@@ -25,6 +25,7 @@ open module be.yildizgames.module.compression.sevenzip {
     requires be.yildizgames.common.hashing;
     requires org.apache.commons.compress;
     requires org.tukaani.xz;
+    requires jdk.jfr;
 
     provides be.yildizgames.module.compression.FileInfoRetrieverProvider with be.yildizgames.module.compression.sevenzip.SevenZipFileInfoRetrieverProvider;
     provides be.yildizgames.module.compression.ArchiverProvider with be.yildizgames.module.compression.sevenzip.SevenZipArchiverProvider;
@@ -0,0 +1,90 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ArchiveIndexCacheTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void hit() {
+        var cache = new ArchiveIndexCache(100);
+        var archive = Path.of("src/test/resources/archive.7z");
+        var retriever = new CachedArchiveInfoRetriever(archive, new SevenZipFileInfoRetriever(archive), cache);
+        var first = retriever.getFileInfo(Algorithm.CRC32);
+        var second = retriever.getFileInfo(Algorithm.CRC32);
+        Assertions.assertSame(first, second);
+        retriever.getEntryInfo();
+        retriever.getEntryInfo();
+        var statistics = cache.getStatistics();
+        Assertions.assertEquals(2, statistics.hits());
+        Assertions.assertEquals(2, statistics.misses());
+        Assertions.assertEquals(1, statistics.archives());
+        Assertions.assertEquals(2, statistics.weight());
+    }
+
+    @Test
+    void modifiedArchive() throws IOException {
+        var cache = new ArchiveIndexCache(100);
+        var archive = Files.copy(Path.of("src/test/resources/archive.zip"), this.folder.resolve("archive.zip"));
+        var retriever = new CachedArchiveInfoRetriever(archive, new ZipFileInfoRetriever(archive), cache);
+        retriever.getEntryInfo();
+        Files.setLastModifiedTime(archive, FileTime.from(Instant.now().plusSeconds(60)));
+        retriever.getEntryInfo();
+        Assertions.assertEquals(0, cache.getStatistics().hits());
+        Assertions.assertEquals(2, cache.getStatistics().misses());
+        Assertions.assertEquals(1, cache.getStatistics().weight());
+    }
+
+    @Test
+    void eviction() throws IOException {
+        var cache = new ArchiveIndexCache(2);
+        var archives = List.of(
+                Files.copy(Path.of("src/test/resources/archive.zip"), this.folder.resolve("a.zip")),
+                Files.copy(Path.of("src/test/resources/archive.zip"), this.folder.resolve("b.zip")),
+                Files.copy(Path.of("src/test/resources/archive.zip"), this.folder.resolve("c.zip")));
+        for (var archive : archives) {
+            new CachedArchiveInfoRetriever(archive, new ZipFileInfoRetriever(archive), cache).getEntryInfo();
+        }
+        var statistics = cache.getStatistics();
+        Assertions.assertEquals(2, statistics.archives());
+        Assertions.assertEquals(1, statistics.evictions());
+        new CachedArchiveInfoRetriever(archives.get(0), new ZipFileInfoRetriever(archives.get(0)), cache).getEntryInfo();
+        Assertions.assertEquals(4, cache.getStatistics().misses());
+    }
+
+    @Test
+    void negativeWeight() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ArchiveIndexCache(-1));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ArchiveOperationExceptionTest {
+
+    @Test
+    void errorCode() {
+        var e = new ArchiveOperationException(ArchiveOperationException.Operation.UNPACK, 9, "a.7z to out", Duration.ofMillis(12));
+        Assertions.assertEquals(ArchiveOperationException.Operation.UNPACK, e.getOperation());
+        Assertions.assertEquals(OptionalInt.of(9), e.getErrorCode());
+        Assertions.assertEquals(ArchiveOperationException.Reason.ARCHIVE_NOT_FOUND, e.getReason());
+        Assertions.assertEquals(Duration.ofMillis(12), e.getDuration());
+        Assertions.assertEquals("Archive file does not exists UNPACK a.7z to out (code 9, after 12ms)", e.getMessage());
+    }
+
+    @Test
+    void unknownErrorCode() {
+        var e = new ArchiveOperationException(ArchiveOperationException.Operation.PACK, 42, "a to b.7z", Duration.ZERO);
+        Assertions.assertEquals(OptionalInt.of(42), e.getErrorCode());
+        Assertions.assertEquals(ArchiveOperationException.Reason.UNKNOWN, e.getReason());
+    }
+
+    @Test
+    void nativeCodesAreNotSentinels() {
+        var zero = new ArchiveOperationException(ArchiveOperationException.Operation.PACK, 0, "a to b.7z", Duration.ZERO);
+        Assertions.assertEquals(OptionalInt.of(0), zero.getErrorCode());
+        Assertions.assertEquals(ArchiveOperationException.Reason.UNKNOWN, zero.getReason());
+        var minusOne = new ArchiveOperationException(ArchiveOperationException.Operation.PACK, -1, "a to b.7z", Duration.ZERO);
+        Assertions.assertEquals(OptionalInt.of(-1), minusOne.getErrorCode());
+        Assertions.assertEquals(ArchiveOperationException.Reason.UNKNOWN, minusOne.getReason());
+        Assertions.assertTrue(ArchiveOperationException.Reason.UNKNOWN.getCode().isEmpty());
+        Assertions.assertTrue(ArchiveOperationException.Reason.INVOCATION_FAILED.getCode().isEmpty());
+        Assertions.assertEquals(OptionalInt.of(9), ArchiveOperationException.Reason.ARCHIVE_NOT_FOUND.getCode());
+    }
+
+    @Test
+    void invocationFailed() {
+        var cause = new IllegalStateException();
+        var e = new ArchiveOperationException(ArchiveOperationException.Operation.PACK, "a to b.7z", Duration.ZERO, cause);
+        Assertions.assertTrue(e.getErrorCode().isEmpty());
+        Assertions.assertEquals(ArchiveOperationException.Reason.INVOCATION_FAILED, e.getReason());
+        Assertions.assertSame(cause, e.getCause());
+    }
+
+    @Test
+    void libraryNotFound() {
+        var cause = new ExceptionInInitializerError();
+        var e = new ArchiveOperationException(ArchiveOperationException.Operation.UNPACK, ArchiveOperationException.Reason.LIBRARY_NOT_FOUND, "a.7z to b", Duration.ZERO, cause);
+        Assertions.assertTrue(e.getErrorCode().isEmpty());
+        Assertions.assertEquals(ArchiveOperationException.Reason.LIBRARY_NOT_FOUND, e.getReason());
+        Assertions.assertSame(cause, e.getCause());
+        Assertions.assertTrue(e.getMessage().startsWith("7z Native library cannot be found UNPACK a.7z to b"), e.getMessage());
+    }
+}
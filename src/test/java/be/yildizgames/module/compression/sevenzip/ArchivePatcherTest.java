@@ -0,0 +1,218 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ArchivePatcherTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void patch7z() throws IOException {
+        patch(".7z", ".7z");
+    }
+
+    @Test
+    void patchZip() throws IOException {
+        patch(".zip", ".zip");
+    }
+
+    @Test
+    void patchMixedFormats() throws IOException {
+        patch(".7z", ".zip");
+    }
+
+    @Test
+    void patchOtherSource() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var v1 = this.folder.resolve("v1.zip");
+        var v2 = this.folder.resolve("v2.zip");
+        var other = this.folder.resolve("other.zip");
+        archiver.pack(List.of(write("v1/a.bin", TestData.random(10_000, 1))), v1);
+        archiver.pack(List.of(write("v2/a.bin", TestData.random(10_000, 2))), v2);
+        archiver.pack(List.of(write("other/a.bin", TestData.random(10_000, 3))), other);
+        var patch = this.folder.resolve("patch.zip");
+        var patcher = new ArchivePatcher();
+        patcher.create(v1, v2, patch);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> patcher.apply(other, patch, this.folder.resolve("result.zip")));
+        Assertions.assertFalse(Files.exists(this.folder.resolve("result.zip")));
+    }
+
+    @Test
+    void patchCrcCollision() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var original = TestData.random(10_000, 1);
+        var crc = new CRC32();
+        crc.update(original);
+        // Same size and CRC, the last 4 bytes are chosen so the CRC of the new content equals the old one.
+        var collision = TestData.random(10_000, 2);
+        var prefix = new CRC32();
+        prefix.update(collision, 0, collision.length - 4);
+        var preimage = StoredCrc.preimage(crc.getValue());
+        for (int i = 0; i < 4; i++) {
+            collision[collision.length - 4 + i] = (byte) (preimage[i] ^ (prefix.getValue() >>> (8 * i)));
+        }
+        var v1 = this.folder.resolve("v1.zip");
+        var v2 = this.folder.resolve("v2.zip");
+        archiver.pack(List.of(write("v1/a.bin", original)), v1);
+        archiver.pack(List.of(write("v2/a.bin", collision)), v2);
+        Assertions.assertEquals(entries(v1), entries(v2));
+        var patch = this.folder.resolve("patch.zip");
+        var patcher = new ArchivePatcher();
+        patcher.create(v1, v2, patch, true);
+        var result = this.folder.resolve("result.zip");
+        patcher.apply(v1, patch, result);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(result, destination);
+        Assertions.assertArrayEquals(collision, Files.readAllBytes(destination.resolve("a.bin")));
+    }
+
+    @Test
+    void patchReordered7z() throws IOException {
+        patchReordered(".7z");
+    }
+
+    @Test
+    void patchReorderedZip() throws IOException {
+        patchReordered(".zip");
+    }
+
+    @Test
+    void patchKeepsMetadata() throws IOException {
+        var v1 = this.folder.resolve("v1.zip");
+        var v2 = this.folder.resolve("v2.zip");
+        try (var out = new ZipArchiveOutputStream(v1)) {
+            write(out, "a.bin", TestData.random(10_000, 1), 1_000_000_000_000L, 0100644);
+            write(out, "b.bin", TestData.random(10_000, 2), 1_000_000_000_000L, 0100644);
+        }
+        try (var out = new ZipArchiveOutputStream(v2)) {
+            write(out, "a.bin", TestData.random(10_000, 1), 1_600_000_000_000L, 0100755);
+            write(out, "b.bin", TestData.random(10_000, 3), 1_600_000_002_000L, 0100600);
+            write(out, "c.bin", TestData.random(10_000, 4), 1_600_000_004_000L, 0100640);
+        }
+        var patch = this.folder.resolve("patch.7z");
+        var patcher = new ArchivePatcher();
+        patcher.create(v1, v2, patch);
+        var result = this.folder.resolve("result.zip");
+        patcher.apply(v1, patch, result);
+        try (var expected = new ZipFile(v2); var actual = new ZipFile(result)) {
+            for (var e : Collections.list(expected.getEntries())) {
+                var a = actual.getEntry(e.getName());
+                Assertions.assertEquals(e.getTime(), a.getTime());
+                Assertions.assertEquals(e.getUnixMode(), a.getUnixMode());
+            }
+        }
+    }
+
+    @Test
+    void invalidPatch() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var v1 = this.folder.resolve("v1.zip");
+        archiver.pack(List.of(write("v1/a.bin", TestData.random(100, 1))), v1);
+        var patch = this.folder.resolve("patch.zip");
+        archiver.pack(List.of(write("p/" + ArchivePatcher.MANIFEST, "something else\n= 1 a.bin".getBytes())), patch);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ArchivePatcher().apply(v1, patch, this.folder.resolve("result.zip")));
+    }
+
+    private void patch(String archiveExtension, String patchExtension) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var unchanged = TestData.random(200_000, 1);
+        var changed = TestData.random(1_000_000, 2);
+        var modified = changed.clone();
+        System.arraycopy(TestData.random(300, 3), 0, modified, 400_000, 300);
+        var v1 = this.folder.resolve("v1" + archiveExtension);
+        var v2 = this.folder.resolve("v2" + archiveExtension);
+        archiver.pack(List.of(write("v1/a.bin", unchanged), write("v1/b.bin", changed), write("v1/c.bin", TestData.random(5_000, 4)), write("v1/e.bin", new byte[0])), v1);
+        archiver.pack(List.of(write("v2/a.bin", unchanged), write("v2/b.bin", modified), write("v2/d.bin", TestData.random(5_000, 5)), write("v2/e.bin", new byte[0])), v2);
+        var patch = this.folder.resolve("patch" + patchExtension);
+        var patcher = new ArchivePatcher();
+        patcher.create(v1, v2, patch);
+        Assertions.assertTrue(Files.size(patch) < 20_000, "Patch size: " + Files.size(patch));
+        Assertions.assertEquals(List.of("c.bin"), patcher.getRemovedEntries(patch));
+        var result = this.folder.resolve("result" + archiveExtension);
+        patcher.apply(v1, patch, result);
+        Assertions.assertEquals(entriesWithTime(v2), entriesWithTime(result));
+        var destination = this.folder.resolve("out");
+        archiver.unpack(result, destination);
+        Assertions.assertArrayEquals(modified, Files.readAllBytes(destination.resolve("b.bin")));
+        Assertions.assertArrayEquals(unchanged, Files.readAllBytes(destination.resolve("a.bin")));
+    }
+
+    private void patchReordered(String extension) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = TestData.random(50_000, 1);
+        var b = TestData.random(50_000, 2);
+        var c = TestData.random(50_000, 3);
+        var v1 = this.folder.resolve("v1" + extension);
+        var v2 = this.folder.resolve("v2" + extension);
+        archiver.pack(List.of(write("v1/a.bin", a), write("v1/b.bin", b), write("v1/c.bin", c)), v1);
+        archiver.pack(List.of(write("v2/c.bin", c), write("v2/a.bin", a), write("v2/b.bin", b)), v2);
+        var patch = this.folder.resolve("patch" + extension);
+        var patcher = new ArchivePatcher();
+        patcher.create(v1, v2, patch);
+        var result = this.folder.resolve("result" + extension);
+        patcher.apply(v1, patch, result);
+        Assertions.assertEquals(entriesWithTime(v2), entriesWithTime(result));
+        var destination = this.folder.resolve("out");
+        archiver.unpack(result, destination);
+        Assertions.assertArrayEquals(a, Files.readAllBytes(destination.resolve("a.bin")));
+        Assertions.assertArrayEquals(b, Files.readAllBytes(destination.resolve("b.bin")));
+        Assertions.assertArrayEquals(c, Files.readAllBytes(destination.resolve("c.bin")));
+    }
+
+    private static List<String> entries(Path archive) {
+        var retriever = ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP ? new SevenZipFileInfoRetriever(archive) : new ZipFileInfoRetriever(archive);
+        return retriever.getEntryInfo().stream().map(e -> e.name() + " " + e.size() + " " + e.crc()).toList();
+    }
+
+    private static List<String> entriesWithTime(Path archive) {
+        var retriever = ArchiveFormat.of(archive) == ArchiveFormat.SEVEN_ZIP ? new SevenZipFileInfoRetriever(archive) : new ZipFileInfoRetriever(archive);
+        return retriever.getEntryInfo().stream().map(e -> e.name() + " " + e.size() + " " + e.crc() + " " + e.lastModified()).toList();
+    }
+
+    private static void write(ZipArchiveOutputStream out, String name, byte[] content, long time, int mode) throws IOException {
+        var entry = new ZipArchiveEntry(name);
+        entry.setTime(time);
+        entry.setUnixMode(mode);
+        out.putArchiveEntry(entry);
+        out.write(content);
+        out.closeArchiveEntry();
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        var file = this.folder.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ArchiveStatisticsTest {
+
+    @Test
+    void bucket() {
+        Assertions.assertEquals(0, ArchiveStatistics.bucket(Duration.ofNanos(999)));
+        Assertions.assertEquals(1, ArchiveStatistics.bucket(Duration.ofNanos(1_000)));
+        Assertions.assertEquals(2, ArchiveStatistics.bucket(Duration.ofNanos(3_999)));
+        Assertions.assertEquals(10, ArchiveStatistics.bucket(Duration.ofMillis(1)));
+    }
+
+    @Test
+    void counters() {
+        var statistics = new ArchiveStatistics();
+        statistics.onOperation(new OperationMetrics(OperationMetrics.Type.PACK, "a.7z", Duration.ofMillis(1), 1_000, 250, true, OptionalInt.empty()));
+        statistics.onOperation(new OperationMetrics(OperationMetrics.Type.PACK, "b.7z", Duration.ofMillis(100), 3_000, 750, true, OptionalInt.empty()));
+        statistics.onOperation(new OperationMetrics(OperationMetrics.Type.UNPACK, "c.7z", Duration.ofMillis(2), 10, -1, false, OptionalInt.of(9)));
+        Assertions.assertEquals(2, statistics.getCount(OperationMetrics.Type.PACK));
+        Assertions.assertEquals(4_000, statistics.getBytesIn(OperationMetrics.Type.PACK));
+        Assertions.assertEquals(1_000, statistics.getBytesOut(OperationMetrics.Type.PACK));
+        Assertions.assertEquals(0.25, statistics.getCompressionRatio());
+        Assertions.assertEquals(1, statistics.getFailures(OperationMetrics.Type.UNPACK));
+        Assertions.assertEquals(1, statistics.getErrorCount(9));
+        Assertions.assertEquals(0, statistics.getErrorCount(2));
+        Assertions.assertEquals(0, statistics.getCount(OperationMetrics.Type.READ_INFO));
+    }
+
+    @Test
+    void percentile() {
+        var statistics = new ArchiveStatistics();
+        for (int i = 0; i < 99; i++) {
+            statistics.onOperation(new OperationMetrics(OperationMetrics.Type.UNPACK, "a.zip", Duration.ofNanos(1_500), 1, 1, true, OptionalInt.empty()));
+        }
+        statistics.onOperation(new OperationMetrics(OperationMetrics.Type.UNPACK, "a.zip", Duration.ofMillis(1), 1, 1, true, OptionalInt.empty()));
+        Assertions.assertEquals(Duration.ofNanos(2_000), statistics.getLatencyPercentile(OperationMetrics.Type.UNPACK, 50));
+        Assertions.assertEquals(Duration.ofNanos(1_024_000), statistics.getLatencyPercentile(OperationMetrics.Type.UNPACK, 100));
+        Assertions.assertEquals(Duration.ZERO, statistics.getLatencyPercentile(OperationMetrics.Type.PACK, 50));
+        Assertions.assertEquals(100, statistics.getLatencyHistogram(OperationMetrics.Type.UNPACK)[1] + statistics.getLatencyHistogram(OperationMetrics.Type.UNPACK)[10]);
+    }
+
+    @Test
+    void ratio() {
+        Assertions.assertEquals(0.5, new OperationMetrics(OperationMetrics.Type.PACK, "a", Duration.ZERO, 100, 50, true, OptionalInt.empty()).compressionRatio());
+        Assertions.assertEquals(0.5, new OperationMetrics(OperationMetrics.Type.UNPACK, "a", Duration.ZERO, 50, 100, true, OptionalInt.empty()).compressionRatio());
+        Assertions.assertEquals(-1, new OperationMetrics(OperationMetrics.Type.UNPACK, "a", Duration.ZERO, 50, -1, false, OptionalInt.empty()).compressionRatio());
+    }
+}
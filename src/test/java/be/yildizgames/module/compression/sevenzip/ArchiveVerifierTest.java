@@ -0,0 +1,130 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ArchiveVerifierTest {
+
+    /**
+     * Size of the 7z signature header, the packed streams start right after it.
+     */
+    private static final int SEVEN_ZIP_SIGNATURE_HEADER = 32;
+
+    private static final CompressionOptions STORE = new CompressionOptions(CompressionOptions.Method.COPY, 0, 0, 1);
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void valid7z() throws IOException {
+        valid("archive.7z", Parallelism.of(3));
+    }
+
+    @Test
+    void validZip() throws IOException {
+        valid("archive.zip", Parallelism.of(3));
+    }
+
+    @Test
+    void validSequential() throws IOException {
+        valid("archive.7z", Parallelism.SEQUENTIAL);
+    }
+
+    @Test
+    void corrupt7z() throws IOException {
+        var archive = pack("archive.7z", STORE);
+        corrupt(archive, SEVEN_ZIP_SIGNATURE_HEADER + 100_000 + 50_000);
+        var report = new JavaSevenZipArchiver().verify(archive, Parallelism.of(2));
+        Assertions.assertFalse(report.isValid());
+        Assertions.assertEquals(List.of("b.bin"), report.corruptEntries());
+        Assertions.assertEquals(4, report.entries());
+    }
+
+    @Test
+    void corruptZip() throws IOException {
+        var archive = pack("archive.zip", STORE);
+        long offset;
+        try (var zip = new ZipFile(archive)) {
+            offset = zip.getEntry("c.bin").getDataOffset();
+        }
+        corrupt(archive, offset + 10);
+        var report = new JavaSevenZipArchiver().verify(archive, Parallelism.of(2));
+        Assertions.assertEquals(List.of("c.bin"), report.corruptEntries());
+    }
+
+    @Test
+    void corruptCompressed7z() throws IOException {
+        var archive = pack("archive.7z", CompressionOptions.DEFAULT);
+        corrupt(archive, SEVEN_ZIP_SIGNATURE_HEADER + 10);
+        var report = new JavaSevenZipArchiver().verify(archive, Parallelism.of(2));
+        Assertions.assertFalse(report.isValid());
+        Assertions.assertEquals("a.bin", report.corruptEntries().getFirst());
+    }
+
+    @Test
+    void missingArchive() {
+        Assertions.assertThrows(IllegalStateException.class, () -> new JavaSevenZipArchiver().verify(this.folder.resolve("missing.7z")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new JavaSevenZipArchiver().verify(this.folder.resolve("archive.rar")));
+    }
+
+    private void valid(String archiveName, Parallelism parallelism) throws IOException {
+        var archive = pack(archiveName, CompressionOptions.DEFAULT);
+        var report = new JavaSevenZipArchiver().verify(archive, parallelism);
+        Assertions.assertTrue(report.isValid());
+        Assertions.assertEquals(4, report.entries());
+        Assertions.assertEquals(100_000 + 200_000 + 300_000, report.bytes());
+        Assertions.assertTrue(report.throughput() > 0);
+    }
+
+    private Path pack(String archiveName, CompressionOptions options) throws IOException {
+        var files = List.of(write("a.bin", 100_000), write("b.bin", 200_000), write("c.bin", 300_000), write("d.bin", 0));
+        var archive = this.folder.resolve(archiveName);
+        new JavaSevenZipArchiver().pack(files, archive, options);
+        return archive;
+    }
+
+    private Path write(String name, int size) throws IOException {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return Files.write(this.folder.resolve(name), content);
+    }
+
+    private static void corrupt(Path archive, long offset) throws IOException {
+        try (var channel = FileChannel.open(archive, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var value = ByteBuffer.allocate(1);
+            channel.read(value, offset);
+            value.put(0, (byte) ~value.get(0));
+            channel.write(value.flip(), offset);
+        }
+    }
+}
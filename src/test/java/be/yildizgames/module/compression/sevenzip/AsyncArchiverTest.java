@@ -0,0 +1,94 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class AsyncArchiverTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void packUnpack() throws IOException {
+        var file = Files.write(this.folder.resolve("a.bin"), new byte[10_000]);
+        var archive = this.folder.resolve("archive.7z");
+        var destination = this.folder.resolve("out");
+        try (var archiver = new AsyncArchiver(new JavaSevenZipArchiver(), 2, 2)) {
+            archiver.pack(List.of(file), archive).thenCompose(v -> archiver.unpack(archive, destination)).join();
+        }
+        Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(destination.resolve("a.bin")));
+    }
+
+    @Test
+    void failure() {
+        try (var archiver = new AsyncArchiver(new JavaSevenZipArchiver(), 1, 1)) {
+            var future = archiver.unpack(this.folder.resolve("archive.rar"), this.folder);
+            var e = Assertions.assertThrows(CompletionException.class, future::join);
+            Assertions.assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void queueFull() throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var engine = new JavaSevenZipArchiver() {
+            @Override
+            public void pack(List<Path> source, Path archive, CompressionOptions options) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try (var archiver = new AsyncArchiver(engine, 1, 1)) {
+            var running = archiver.pack(List.of(), this.folder.resolve("a.7z"));
+            started.await();
+            var queued = archiver.pack(List.of(), this.folder.resolve("b.7z"));
+            Assertions.assertEquals(1, archiver.getQueueDepth());
+            var rejected = archiver.pack(List.of(), this.folder.resolve("c.7z"));
+            Assertions.assertTrue(rejected.isCompletedExceptionally());
+            var e = Assertions.assertThrows(CompletionException.class, rejected::join);
+            Assertions.assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            release.countDown();
+            running.join();
+            queued.join();
+        }
+    }
+
+    @Test
+    void invalidConfiguration() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AsyncArchiver(new JavaSevenZipArchiver(), 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AsyncArchiver(new JavaSevenZipArchiver(), 1, 0));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BinaryDeltaTest {
+
+    @Test
+    void blockSize() {
+        Assertions.assertEquals(BinaryDelta.MIN_BLOCK_SIZE, BinaryDelta.blockSize(0));
+        Assertions.assertEquals(BinaryDelta.MIN_BLOCK_SIZE, BinaryDelta.blockSize((long) BinaryDelta.MIN_BLOCK_SIZE * BinaryDelta.MAX_BLOCKS));
+        Assertions.assertEquals(BinaryDelta.MIN_BLOCK_SIZE * 2, BinaryDelta.blockSize((long) BinaryDelta.MIN_BLOCK_SIZE * BinaryDelta.MAX_BLOCKS + 1));
+    }
+
+    @Test
+    void insertion() throws IOException {
+        var source = TestData.random(3_000_000, 1);
+        var target = new byte[source.length + 100];
+        System.arraycopy(source, 0, target, 0, 1_000_000);
+        System.arraycopy(TestData.random(100, 2), 0, target, 1_000_000, 100);
+        System.arraycopy(source, 1_000_000, target, 1_000_100, source.length - 1_000_000);
+        var delta = roundTrip(source, target);
+        Assertions.assertTrue(delta < 5_000, "Delta size: " + delta);
+    }
+
+    @Test
+    void modification() throws IOException {
+        var source = TestData.random(500_000, 3);
+        var target = source.clone();
+        Arrays.fill(target, 10_000, 10_050, (byte) 7);
+        target[499_999] = (byte) (target[499_999] + 1);
+        var delta = roundTrip(source, target);
+        Assertions.assertTrue(delta < 3_000, "Delta size: " + delta);
+    }
+
+    @Test
+    void unrelated() throws IOException {
+        roundTrip(TestData.random(10_000, 4), TestData.random(20_000, 5));
+    }
+
+    @Test
+    void empty() throws IOException {
+        roundTrip(new byte[0], TestData.random(1_000, 6));
+        roundTrip(TestData.random(1_000, 7), new byte[0]);
+    }
+
+    @Test
+    void truncated() throws IOException {
+        var delta = new ByteArrayOutputStream();
+        BinaryDelta.diff(new SeekableInMemoryByteChannel(TestData.random(1_000, 8)), new ByteArrayInputStream(TestData.random(1_000, 9)), delta);
+        var content = Arrays.copyOf(delta.toByteArray(), 100);
+        Assertions.assertThrows(IOException.class, () -> BinaryDelta.apply(new SeekableInMemoryByteChannel(new byte[0]), new ByteArrayInputStream(content), new ByteArrayOutputStream()));
+    }
+
+    private static int roundTrip(byte[] source, byte[] target) throws IOException {
+        var delta = new ByteArrayOutputStream();
+        BinaryDelta.diff(new SeekableInMemoryByteChannel(source), new ByteArrayInputStream(target), delta);
+        var result = new ByteArrayOutputStream();
+        var written = BinaryDelta.apply(new SeekableInMemoryByteChannel(source), new ByteArrayInputStream(delta.toByteArray()), result);
+        Assertions.assertEquals(target.length, written);
+        Assertions.assertArrayEquals(target, result.toByteArray());
+        return delta.size();
+    }
+}
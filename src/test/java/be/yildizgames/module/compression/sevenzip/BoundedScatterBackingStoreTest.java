@@ -0,0 +1,53 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BoundedScatterBackingStoreTest {
+
+    @Test
+    void inMemory() throws IOException {
+        try (var store = new BoundedScatterBackingStore(10)) {
+            store.writeOut(new byte[]{1, 2, 3, 4}, 1, 3);
+            store.closeForWriting();
+            Assertions.assertFalse(store.isSpilled());
+            try (var in = store.getInputStream()) {
+                Assertions.assertArrayEquals(new byte[]{2, 3, 4}, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void spilled() throws IOException {
+        try (var store = new BoundedScatterBackingStore(4)) {
+            store.writeOut(new byte[]{1, 2, 3}, 0, 3);
+            store.writeOut(new byte[]{4, 5, 6}, 0, 3);
+            store.closeForWriting();
+            Assertions.assertTrue(store.isSpilled());
+            try (var in = store.getInputStream()) {
+                Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, in.readAllBytes());
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class CompressionOptionsTest {
+
+    @Test
+    void presets() {
+        Assertions.assertEquals(CompressionOptions.DEFAULT, CompressionOptions.of(CompressionOptions.Preset.NORMAL));
+        Assertions.assertEquals(CompressionOptions.Method.COPY, CompressionOptions.of(CompressionOptions.Preset.STORE).method());
+        Assertions.assertTrue(CompressionOptions.of(CompressionOptions.Preset.FASTEST).level() < CompressionOptions.of(CompressionOptions.Preset.MAXIMUM).level());
+    }
+
+    @Test
+    void withThreads() {
+        var options = CompressionOptions.DEFAULT.withThreads(4);
+        Assertions.assertEquals(4, options.threads());
+        Assertions.assertEquals(CompressionOptions.DEFAULT.level(), options.level());
+    }
+
+    @Test
+    void withDeduplication() {
+        var options = CompressionOptions.DEFAULT.withThreads(4).withDeduplication(true);
+        Assertions.assertTrue(options.deduplicate());
+        Assertions.assertEquals(4, options.threads());
+        Assertions.assertFalse(CompressionOptions.DEFAULT.deduplicate());
+        Assertions.assertFalse(options.withThreads(2).withDeduplication(false).deduplicate());
+    }
+
+    @Test
+    void invalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompressionOptions(CompressionOptions.Method.LZMA2, 10, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompressionOptions(CompressionOptions.Method.LZMA2, 5, -1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompressionOptions(CompressionOptions.Method.LZMA2, 5, 0, 0));
+        Assertions.assertThrows(NullPointerException.class, () -> new CompressionOptions(null, 5, 0, 1));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * Stress the shared archiver with many concurrent operations.
+ *
+ * @author Grégory Van den Borre
+ */
+class ConcurrentArchiverTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void parallelPackUnpack() throws Exception {
+        var archiver = new SevenZipArchiverProvider().getArchiverEngine();
+        var threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        var tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < threads * 4; i++) {
+            var id = i;
+            tasks.add(() -> {
+                var directory = Files.createDirectories(this.folder.resolve("task" + id));
+                var file = createFile(directory.resolve("file" + id + ".bin"), 10_000 + id * 1_000);
+                var archive = directory.resolve(id % 2 == 0 ? "archive.7z" : "archive.zip");
+                archiver.pack(List.of(file), archive);
+                var destination = directory.resolve("out");
+                archiver.unpack(archive, destination);
+                Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(destination.resolve(file.getFileName())));
+                return null;
+            });
+        }
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (var result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        }
+    }
+
+    private static Path createFile(Path path, int size) throws IOException {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return Files.write(path, content);
+    }
+}
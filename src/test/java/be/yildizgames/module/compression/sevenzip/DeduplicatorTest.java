@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class DeduplicatorTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void findDuplicates() throws IOException {
+        var a = Files.write(this.folder.resolve("a"), new byte[]{1, 2, 3});
+        var b = Files.write(this.folder.resolve("b"), new byte[]{1, 2, 4});
+        var c = Files.write(this.folder.resolve("c"), new byte[]{1, 2, 3});
+        var d = Files.write(this.folder.resolve("d"), new byte[]{1, 2, 4});
+        var e = Files.write(this.folder.resolve("e"), new byte[]{1, 2, 3, 4});
+        var f = Files.write(this.folder.resolve("f"), new byte[0]);
+        var g = Files.write(this.folder.resolve("g"), new byte[0]);
+        Assertions.assertEquals(Map.of(c, a, d, b), Deduplicator.findDuplicates(List.of(a, b, c, d, e, f, g), 2));
+    }
+
+    @Test
+    void findDuplicatesNone() throws IOException {
+        var a = Files.write(this.folder.resolve("a"), new byte[]{1});
+        var b = Files.write(this.folder.resolve("b"), new byte[]{1, 2});
+        Assertions.assertTrue(Deduplicator.findDuplicates(List.of(a, b), 2).isEmpty());
+    }
+
+    @Test
+    void linkContent() {
+        Assertions.assertEquals("b.png", Deduplicator.linkContent("a.png", "b.png"));
+        Assertions.assertEquals("../b/c.png", Deduplicator.linkContent("a/x.png", "b/c.png"));
+        Assertions.assertEquals("b/c.png", Deduplicator.linkContent("x.png", "b/c.png"));
+    }
+
+    @Test
+    void isLink() {
+        var entry = new SevenZArchiveEntry();
+        Assertions.assertFalse(Deduplicator.isLink(entry));
+        entry.setHasWindowsAttributes(true);
+        entry.setWindowsAttributes(0x20);
+        Assertions.assertFalse(Deduplicator.isLink(entry));
+        entry.setWindowsAttributes(0x8000 | ((Deduplicator.UNIX_LINK | 0777) << 16));
+        Assertions.assertFalse(Deduplicator.isLink(entry));
+        entry.setWindowsAttributes(Deduplicator.SEVEN_ZIP_LINK_ATTRIBUTES);
+        Assertions.assertTrue(Deduplicator.isLink(entry));
+    }
+
+    @Test
+    void isLinkZip() {
+        var entry = new ZipArchiveEntry("a.png");
+        entry.setUnixMode(UnixStat.LINK_FLAG | UnixStat.DEFAULT_LINK_PERM);
+        Assertions.assertFalse(Deduplicator.isLink(entry));
+        Assertions.assertTrue(Deduplicator.isLink(Deduplicator.zipLink("a.png")));
+    }
+
+    @Test
+    void unmarkedLinkIsNotResolved() throws IOException {
+        var archive = this.folder.resolve("links.zip");
+        try (var out = new ZipArchiveOutputStream(archive)) {
+            out.putArchiveEntry(new ZipArchiveEntry("a.png"));
+            out.write(new byte[]{1, 2, 3});
+            out.closeArchiveEntry();
+            var link = new ZipArchiveEntry("b.png");
+            link.setUnixMode(UnixStat.LINK_FLAG | UnixStat.DEFAULT_LINK_PERM);
+            out.putArchiveEntry(link);
+            out.write("a.png".getBytes(StandardCharsets.UTF_8));
+            out.closeArchiveEntry();
+        }
+        try (var zip = new ZipFile(archive)) {
+            Assertions.assertTrue(Deduplicator.linkTargets(zip).isEmpty());
+        }
+        var destination = this.folder.resolve("out");
+        new JavaSevenZipArchiver().unpack(archive, destination);
+        Assertions.assertFalse(Files.isSymbolicLink(destination.resolve("b.png")));
+        Assertions.assertArrayEquals("a.png".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(destination.resolve("b.png")));
+    }
+
+    @Test
+    void extractLink() throws IOException {
+        var original = Files.write(Files.createDirectories(this.folder.resolve("b")).resolve("c.png"), new byte[]{5, 6});
+        Deduplicator.extractLink(this.folder, "a/x.png", "../b/c.png".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertArrayEquals(new byte[]{5, 6}, Files.readAllBytes(this.folder.resolve("a/x.png")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Deduplicator.extractLink(this.folder, "a/y.png", "../../outside".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Deduplicator.extractLink(this.folder, "a/z.png", "z.png".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertTrue(Files.exists(original));
+    }
+}
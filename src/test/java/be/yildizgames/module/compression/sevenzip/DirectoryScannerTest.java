@@ -0,0 +1,66 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class DirectoryScannerTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void scan() throws IOException {
+        Files.createDirectories(this.folder.resolve("textures/ui"));
+        Files.createDirectories(this.folder.resolve("empty"));
+        Files.write(this.folder.resolve("b.txt"), new byte[30]);
+        Files.write(this.folder.resolve("textures/a.png"), new byte[20]);
+        Files.write(this.folder.resolve("textures/ui/button.PNG"), new byte[10]);
+        Files.write(this.folder.resolve("textures/ui/a.txt"), new byte[30]);
+        Files.write(this.folder.resolve("README"), new byte[5]);
+        var result = DirectoryScanner.scan(this.folder, p -> true, 4);
+        Assertions.assertEquals(
+                List.of("README", "b.txt", "textures/a.png", "textures/ui/a.txt", "textures/ui/button.PNG"),
+                result.stream().map(DirectoryScanner.ScannedFile::name).toList());
+        Assertions.assertEquals(10, result.get(4).size());
+    }
+
+    @Test
+    void scanFiltered() throws IOException {
+        Files.createDirectories(this.folder.resolve("sub"));
+        Files.write(this.folder.resolve("sub/a.tmp"), new byte[1]);
+        Files.write(this.folder.resolve("sub/b.dat"), new byte[1]);
+        var result = DirectoryScanner.scan(this.folder, p -> !p.toString().endsWith(".tmp"), 2);
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals("sub/b.dat", result.getFirst().name());
+    }
+
+    @Test
+    void scanMissingDirectory() {
+        Assertions.assertThrows(IOException.class, () -> DirectoryScanner.scan(this.folder.resolve("missing"), p -> true, 2));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class EntryChannelTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void stored() throws IOException {
+        var content = TestData.random(1_000_000, 1);
+        var archive = pack("archive.zip", content, new CompressionOptions(CompressionOptions.Method.COPY, 0, 0, 1));
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            Assertions.assertTrue(channel.isDirect());
+            checkRanges(channel, content);
+        }
+    }
+
+    @Test
+    void deflated() throws IOException {
+        var content = TestData.random(1_000_000, 2);
+        var archive = pack("archive.zip", content, CompressionOptions.DEFAULT);
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            Assertions.assertFalse(channel.isDirect());
+            checkRanges(channel, content);
+        }
+    }
+
+    @Test
+    void sevenZip() throws IOException {
+        var content = TestData.random(1_000_000, 3);
+        var archive = pack("archive.7z", content, CompressionOptions.DEFAULT);
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            Assertions.assertFalse(channel.isDirect());
+            checkRanges(channel, content);
+        }
+    }
+
+    @Test
+    void storedSevenZip() throws IOException {
+        var content = TestData.random(1_000_000, 9);
+        var archive = pack("archive.7z", content, new CompressionOptions(CompressionOptions.Method.COPY, 0, 0, 1));
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            Assertions.assertTrue(channel.isDirect());
+            checkRanges(channel, content);
+        }
+    }
+
+    @Test
+    void checkpoints() throws IOException {
+        var content = TestData.random(5_000_000, 4);
+        var archive = pack("archive.7z", content, CompressionOptions.DEFAULT);
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 0, 65_536), read(channel, 0, 65_536));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 100_000, 200_000), read(channel, 100_000, 100_000));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 10, 100), read(channel, 10, 90));
+            Assertions.assertEquals(0, channel.getRestarts());
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 4_900_000, 5_000_000), read(channel, 4_900_000, 100_000));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 4_800_000, 4_900_000), read(channel, 4_800_000, 100_000));
+            Assertions.assertEquals(0, channel.getRestarts());
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 0, 100), read(channel, 0, 100));
+            Assertions.assertEquals(1, channel.getRestarts());
+        }
+    }
+
+    @Test
+    void duplicate7z() throws IOException {
+        duplicate("archive.7z");
+    }
+
+    @Test
+    void duplicateZip() throws IOException {
+        duplicate("archive.zip");
+    }
+
+    @Test
+    void endOfEntry() throws IOException {
+        var archive = pack("archive.zip", TestData.random(1_000, 5), CompressionOptions.DEFAULT);
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            Assertions.assertEquals(1_000, channel.size());
+            channel.position(1_000);
+            Assertions.assertEquals(-1, channel.read(ByteBuffer.allocate(10)));
+            channel.position(995);
+            Assertions.assertEquals(5, channel.read(ByteBuffer.allocate(10)));
+        }
+    }
+
+    @Test
+    void missingEntry() throws IOException {
+        var archive = pack("archive.7z", TestData.random(1_000, 6), CompressionOptions.DEFAULT);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> EntryChannel.open(archive, "missing.bin"));
+    }
+
+    @Test
+    void closed() throws IOException {
+        var archive = pack("archive.zip", TestData.random(1_000, 7), CompressionOptions.DEFAULT);
+        var channel = EntryChannel.open(archive, "b.bin");
+        channel.close();
+        Assertions.assertFalse(channel.isOpen());
+        Assertions.assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(10)));
+    }
+
+    private void duplicate(String archiveName) throws IOException {
+        var content = TestData.random(1_000_000, 8);
+        var a = Files.write(this.folder.resolve("a.bin"), content);
+        var copy = Files.write(Files.createDirectories(this.folder.resolve("copy")).resolve("b.bin"), content);
+        var archive = this.folder.resolve(archiveName);
+        new JavaSevenZipArchiver().pack(List.of(a, copy), archive, CompressionOptions.DEFAULT.withDeduplication(true));
+        try (var channel = EntryChannel.open(archive, "b.bin")) {
+            checkRanges(channel, content);
+        }
+    }
+
+    private void checkRanges(EntryChannel channel, byte[] content) throws IOException {
+        Assertions.assertEquals(content.length, channel.size());
+        Assertions.assertArrayEquals(Arrays.copyOfRange(content, 500_000, 600_000), read(channel, 500_000, 100_000));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(content, 0, 65_536), read(channel, 0, 65_536));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(content, 999_000, 1_000_000), read(channel, 999_000, 1_000));
+    }
+
+    private static byte[] read(EntryChannel channel, long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        channel.position(position);
+        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            // Fill the buffer.
+        }
+        Assertions.assertEquals(position + length, channel.position());
+        return buffer.array();
+    }
+
+    private Path pack(String archiveName, byte[] content, CompressionOptions options) throws IOException {
+        var a = Files.write(this.folder.resolve("a.bin"), TestData.random(10_000, 0));
+        var b = Files.write(this.folder.resolve("b.bin"), content);
+        var archive = this.folder.resolve(archiveName);
+        new JavaSevenZipArchiver().pack(List.of(a, b), archive, options);
+        return archive;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class InstrumentedArchiverTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void measures() throws IOException {
+        var metrics = new ArrayList<OperationMetrics>();
+        var archiver = new InstrumentedArchiver(new JavaSevenZipArchiver(), metrics::add);
+        var file = Files.write(this.folder.resolve("a.bin"), new byte[100_000]);
+        var archive = this.folder.resolve("archive.7z");
+        archiver.pack(List.of(file), archive);
+        archiver.unpack(archive, this.folder.resolve("out"));
+        Assertions.assertThrows(IllegalStateException.class, () -> archiver.unpack(this.folder.resolve("missing.zip"), this.folder.resolve("out")));
+        Assertions.assertEquals(3, metrics.size());
+        var pack = metrics.get(0);
+        Assertions.assertEquals(OperationMetrics.Type.PACK, pack.type());
+        Assertions.assertEquals(100_000, pack.bytesIn());
+        Assertions.assertEquals(Files.size(archive), pack.bytesOut());
+        Assertions.assertTrue(pack.compressionRatio() < 0.1);
+        var unpack = metrics.get(1);
+        Assertions.assertEquals(OperationMetrics.Type.UNPACK, unpack.type());
+        Assertions.assertEquals(Files.size(archive), unpack.bytesIn());
+        Assertions.assertEquals(100_000, unpack.bytesOut());
+        Assertions.assertTrue(unpack.success());
+        var failed = metrics.get(2);
+        Assertions.assertFalse(failed.success());
+        Assertions.assertEquals(-1, failed.bytesOut());
+    }
+
+    @Test
+    void flightRecorderEvents() throws IOException {
+        var archiver = new InstrumentedArchiver(new JavaSevenZipArchiver(), new ArchiveStatistics());
+        var files = List.of(Files.write(this.folder.resolve("a.bin"), new byte[1_000]), Files.write(this.folder.resolve("b.bin"), new byte[2_000]));
+        var archive = this.folder.resolve("archive.zip");
+        var dump = this.folder.resolve("recording.jfr");
+        try (var recording = new Recording()) {
+            recording.enable("be.yildizgames.compression.ArchiveOperation");
+            recording.enable("be.yildizgames.compression.ArchiveEntry");
+            recording.start();
+            archiver.pack(files, archive);
+            recording.stop();
+            recording.dump(dump);
+        }
+        var events = RecordingFile.readAllEvents(dump);
+        var operations = events.stream().filter(e -> e.getEventType().getName().equals("be.yildizgames.compression.ArchiveOperation")).toList();
+        var entries = events.stream().filter(e -> e.getEventType().getName().equals("be.yildizgames.compression.ArchiveEntry")).toList();
+        Assertions.assertEquals(1, operations.size());
+        Assertions.assertEquals("PACK", operations.getFirst().getValue("operation"));
+        Assertions.assertEquals(3_000, operations.getFirst().getLong("bytesIn"));
+        Assertions.assertEquals(2, entries.size());
+        Assertions.assertEquals(2_000, entries.stream().filter(e -> e.<String>getValue("entry").equals("b.bin")).findFirst().orElseThrow().getLong("bytes"));
+    }
+}
@@ -0,0 +1,607 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class JavaSevenZipArchiverTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void packUnpack7z() throws IOException {
+        packUnpack("archive.7z");
+    }
+
+    @Test
+    void packUnpackZip() throws IOException {
+        packUnpack("archive.zip");
+    }
+
+    @Test
+    void unpackSingleFile7z() throws IOException {
+        unpackSingleFile("archive.7z");
+    }
+
+    @Test
+    void unpackSingleFileZip() throws IOException {
+        unpackSingleFile("archive.zip");
+    }
+
+    @Test
+    void unpackSeveralFiles7z() throws IOException {
+        unpackSeveralFiles("archive.7z");
+    }
+
+    @Test
+    void unpackSeveralFilesZip() throws IOException {
+        unpackSeveralFiles("archive.zip");
+    }
+
+    @Test
+    void unpackSeveralMissingFile() throws IOException {
+        var archive = this.folder.resolve("archive.zip");
+        new JavaSevenZipArchiver().pack(createFile("a.bin", 10), archive);
+        var destination = this.folder.resolve("out");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new JavaSevenZipArchiver().unpack(archive, List.of("a.bin", "missing.bin"), destination));
+        Assertions.assertFalse(Files.exists(destination.resolve("a.bin")));
+    }
+
+    @Test
+    void unpackParallel7z() throws IOException {
+        unpackParallel("archive.7z");
+    }
+
+    @Test
+    void unpackParallelZip() throws IOException {
+        unpackParallel("archive.zip");
+    }
+
+    @Test
+    void packParallelZip() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var files = new ArrayList<Path>();
+        for (int i = 0; i < 20; i++) {
+            files.add(createFile("file" + i + ".bin", i * 10_000));
+        }
+        var archive = this.folder.resolve("archive.zip");
+        archiver.pack(files, archive, new Parallelism(4, 100_000));
+        var info = new ZipFileInfoRetriever(archive).getEntryInfo();
+        Assertions.assertEquals(20, info.size());
+        for (int i = 0; i < info.size(); i++) {
+            Assertions.assertEquals("file" + i + ".bin", info.get(i).name());
+        }
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination);
+        for (var file : files) {
+            Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(destination.resolve(file.getFileName())));
+        }
+    }
+
+    @Test
+    void unpackMissingFile() throws IOException {
+        var archive = this.folder.resolve("archive.7z");
+        new JavaSevenZipArchiver().pack(createFile("a.bin", 10), archive);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new JavaSevenZipArchiver().unpack(archive, "missing.bin", this.folder));
+    }
+
+    @Test
+    void unsupportedArchive() throws IOException {
+        var file = createFile("a.bin", 10);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new JavaSevenZipArchiver().pack(file, this.folder.resolve("archive.rar")));
+    }
+
+    @Test
+    void unpackExisting7z() {
+        var archiver = new JavaSevenZipArchiver();
+        archiver.unpack(Path.of("src/test/resources/archive.7z"), this.folder);
+        Assertions.assertTrue(Files.exists(this.folder.resolve("jpeg.jpg")));
+    }
+
+    @Test
+    void packUnpackStream7z() throws IOException {
+        packUnpackStream(ArchiveFormat.SEVEN_ZIP);
+    }
+
+    @Test
+    void packUnpackStreamZip() throws IOException {
+        packUnpackStream(ArchiveFormat.ZIP);
+    }
+
+    @Test
+    void packStreamWithOptions7z() throws IOException {
+        packStreamWithOptions(ArchiveFormat.SEVEN_ZIP);
+    }
+
+    @Test
+    void packStreamWithOptionsZip() throws IOException {
+        packStreamWithOptions(ArchiveFormat.ZIP);
+    }
+
+    @Test
+    void unpackBufferTooSmall() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = this.folder.resolve("archive.zip");
+        archiver.pack(createFile("a.bin", 5_000), archive);
+        var buffer = ByteBuffer.allocate(4_999);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> archiver.unpack(archive, "a.bin", buffer));
+        Assertions.assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void unpackFromChannel7z() throws IOException {
+        unpackFromChannel(ArchiveFormat.SEVEN_ZIP);
+    }
+
+    @Test
+    void unpackFromChannelZip() throws IOException {
+        unpackFromChannel(ArchiveFormat.ZIP);
+    }
+
+    @Test
+    void packWithOptions7z() throws IOException {
+        packWithOptions("archive.7z");
+    }
+
+    @Test
+    void packWithOptionsZip() throws IOException {
+        packWithOptions("archive.zip");
+    }
+
+    @Test
+    void packWithThreads7z() throws IOException {
+        var files = List.of(createFile("a.bin", 1_000));
+        var archive = this.folder.resolve("threads.7z");
+        var archiver = new JavaSevenZipArchiver();
+        archiver.pack(files, archive, CompressionOptions.of(CompressionOptions.Preset.MAXIMUM).withThreads(2));
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination);
+        Assertions.assertArrayEquals(Files.readAllBytes(files.get(0)), Files.readAllBytes(destination.resolve("a.bin")));
+    }
+
+    @Test
+    void packWithPresets() throws IOException {
+        var files = List.of(createFile("a.bin", 1_000));
+        var archiver = new JavaSevenZipArchiver();
+        for (var preset : CompressionOptions.Preset.values()) {
+            for (var extension : List.of(".7z", ".zip")) {
+                var archive = this.folder.resolve(preset + extension);
+                archiver.pack(files, archive, CompressionOptions.of(preset));
+                Assertions.assertTrue(Files.exists(archive));
+            }
+        }
+    }
+
+    @Test
+    void progress7z() throws IOException {
+        progress("archive.7z", CompressionOptions.DEFAULT);
+    }
+
+    @Test
+    void progressZip() throws IOException {
+        progress("archive.zip", CompressionOptions.DEFAULT);
+    }
+
+    @Test
+    void progressParallelZip() throws IOException {
+        progress("archive.zip", CompressionOptions.DEFAULT.withThreads(4));
+    }
+
+    @Test
+    void cancelPack7z() throws IOException {
+        cancelPack("archive.7z", CompressionOptions.DEFAULT);
+    }
+
+    @Test
+    void cancelPackParallelZip() throws IOException {
+        cancelPack("archive.zip", CompressionOptions.DEFAULT.withThreads(4));
+    }
+
+    @Test
+    void cancelUnpack() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = this.folder.resolve("archive.zip");
+        archiver.pack(List.of(createFile("a.bin", 3_000_000), createFile("b.bin", 3_000_000)), archive);
+        var destination = this.folder.resolve("out");
+        Assertions.assertThrows(CancellationException.class, () -> archiver.unpack(archive, destination, new ProgressListener() {
+            @Override
+            public boolean onProgress(String entry, long processedBytes, long totalBytes) {
+                return false;
+            }
+
+            @Override
+            public Duration interval() {
+                return Duration.ZERO;
+            }
+        }));
+        Assertions.assertFalse(Files.exists(destination.resolve("b.bin")));
+    }
+
+    @Test
+    void update7zNotSupported() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = this.folder.resolve("archive.7z");
+        archiver.pack(List.of(createFile("a.bin", 5_000)), archive);
+        var before = Files.readAllBytes(archive);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> archiver.update(archive, List.of(EntrySource.of(createFile("d.bin", 7_000))), List.of()));
+        Assertions.assertArrayEquals(before, Files.readAllBytes(archive));
+    }
+
+    @Test
+    void updateZip() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = createFile("a.bin", 5_000);
+        var b = createFile("b.bin", 2_000_000);
+        var c = createFile("c.bin", 6_000);
+        var archive = this.folder.resolve("archive.zip");
+        archiver.pack(List.of(a, b, c), archive);
+        var replacement = "replaced".getBytes();
+        archiver.update(archive, List.of(EntrySource.of("a.bin", new ByteArrayInputStream(replacement)), EntrySource.of(createFile("d.bin", 7_000))), List.of("c.bin"));
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination);
+        Assertions.assertArrayEquals(replacement, Files.readAllBytes(destination.resolve("a.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(b), Files.readAllBytes(destination.resolve("b.bin")));
+        Assertions.assertFalse(Files.exists(destination.resolve("c.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(this.folder.resolve("d.bin")), Files.readAllBytes(destination.resolve("d.bin")));
+    }
+
+    @Test
+    void updateRemoveMissingFile() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = this.folder.resolve("archive.zip");
+        archiver.pack(List.of(createFile("a.bin", 5_000)), archive);
+        var before = Files.readAllBytes(archive);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> archiver.update(archive, List.of(), List.of("missing.bin")));
+        Assertions.assertArrayEquals(before, Files.readAllBytes(archive));
+        try (var files = Files.list(this.folder)) {
+            Assertions.assertEquals(0, files.filter(f -> f.toString().endsWith(".tmp")).count());
+        }
+    }
+
+    @Test
+    void updateZipCopiesRawEntries() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = this.folder.resolve("archive.zip");
+        archiver.pack(List.of(createFile("a.bin", 2_000_000), createFile("b.bin", 5_000)), archive);
+        var before = rawContent(archive, "a.bin");
+        archiver.update(archive, List.of(EntrySource.of("b.bin", new ByteArrayInputStream(new byte[10]))), List.of());
+        Assertions.assertArrayEquals(before, rawContent(archive, "a.bin"));
+    }
+
+    private static byte[] rawContent(Path archive, String name) throws IOException {
+        try (var zip = new ZipFile(Files.newByteChannel(archive)); var in = zip.getRawInputStream(zip.getEntry(name))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void packDirectory7z() throws IOException {
+        packDirectory("archive.7z");
+    }
+
+    @Test
+    void packDirectoryZip() throws IOException {
+        packDirectory("archive.zip");
+    }
+
+    private void packDirectory(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var tree = Files.createDirectories(this.folder.resolve("tree/data"));
+        var a = Files.write(tree.resolve("a.bin"), Files.readAllBytes(createFile("a.bin", 5_000)));
+        var b = Files.write(tree.getParent().resolve("b.txt"), Files.readAllBytes(createFile("b.bin", 6_000)));
+        Files.write(tree.resolve("c.tmp"), new byte[10]);
+        var archive = tree.getParent().resolve(archiveName);
+        archiver.pack(tree.getParent(), archive, p -> !p.toString().endsWith(".tmp"));
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination);
+        Assertions.assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(destination.resolve("data/a.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(b), Files.readAllBytes(destination.resolve("b.txt")));
+        try (var files = Files.walk(destination)) {
+            Assertions.assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void deduplicate7z() throws IOException {
+        deduplicate("archive.7z", CompressionOptions.DEFAULT, Parallelism.SEQUENTIAL);
+    }
+
+    @Test
+    void deduplicateZip() throws IOException {
+        deduplicate("archive.zip", CompressionOptions.DEFAULT, Parallelism.SEQUENTIAL);
+    }
+
+    @Test
+    void deduplicateParallel7z() throws IOException {
+        deduplicate("archive.7z", CompressionOptions.DEFAULT.withThreads(2), Parallelism.of(2));
+    }
+
+    @Test
+    void deduplicateParallelZip() throws IOException {
+        deduplicate("archive.zip", CompressionOptions.DEFAULT.withThreads(2), Parallelism.of(2));
+    }
+
+    @Test
+    void unpackSingleDuplicate7z() throws IOException {
+        unpackSingleDuplicate("archive.7z");
+    }
+
+    @Test
+    void unpackSingleDuplicateZip() throws IOException {
+        unpackSingleDuplicate("archive.zip");
+    }
+
+    @Test
+    void unpackDuplicateToStream7z() throws IOException {
+        unpackDuplicateToStream("archive.7z");
+    }
+
+    @Test
+    void unpackDuplicateToStreamZip() throws IOException {
+        unpackDuplicateToStream("archive.zip");
+    }
+
+    @Test
+    void updateZipReplacingDuplicatedFile() throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = packDuplicates("archive.zip");
+        var expected = Files.readAllBytes(this.folder.resolve("a.bin"));
+        var replacement = "replaced".getBytes();
+        archiver.update(archive, List.of(EntrySource.of("a.bin", new ByteArrayInputStream(replacement))), List.of());
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination);
+        Assertions.assertArrayEquals(replacement, Files.readAllBytes(destination.resolve("a.bin")));
+        Assertions.assertArrayEquals(expected, Files.readAllBytes(destination.resolve("b.bin")));
+    }
+
+    private void unpackSingleDuplicate(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = packDuplicates(archiveName);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, "b.bin", destination);
+        Assertions.assertFalse(Files.isSymbolicLink(destination.resolve("b.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(this.folder.resolve("a.bin")), Files.readAllBytes(destination.resolve("b.bin")));
+        Assertions.assertFalse(Files.exists(destination.resolve("a.bin")));
+    }
+
+    private void unpackDuplicateToStream(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var archive = packDuplicates(archiveName);
+        var expected = Files.readAllBytes(this.folder.resolve("a.bin"));
+        var output = new ByteArrayOutputStream();
+        Assertions.assertEquals(expected.length, archiver.unpack(archive, "b.bin", output));
+        Assertions.assertArrayEquals(expected, output.toByteArray());
+        var buffer = ByteBuffer.allocate(expected.length);
+        Assertions.assertEquals(expected.length, archiver.unpack(archive, "b.bin", buffer));
+        Assertions.assertArrayEquals(expected, buffer.array());
+    }
+
+    /**
+     * Pack a.bin and its copy b.bin, stored as a link to a.bin.
+     */
+    private Path packDuplicates(String archiveName) throws IOException {
+        var a = createFile("a.bin", 1_000_000);
+        var copy = Files.write(Files.createDirectories(this.folder.resolve("copy")).resolve("b.bin"), Files.readAllBytes(a));
+        var archive = this.folder.resolve(archiveName);
+        new JavaSevenZipArchiver().pack(List.of(a, copy), archive, CompressionOptions.DEFAULT.withDeduplication(true));
+        return archive;
+    }
+
+    private void deduplicate(String archiveName, CompressionOptions options, Parallelism parallelism) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = createFile("a.bin", 1_000_000);
+        var copy = Files.write(Files.createDirectories(this.folder.resolve("copy")).resolve("b.bin"), Files.readAllBytes(a));
+        var c = createFile("c.bin", 5_000);
+        var full = this.folder.resolve("full-" + archiveName);
+        archiver.pack(List.of(a, copy, c), full, options.withThreads(1));
+        var archive = this.folder.resolve(archiveName);
+        archiver.pack(List.of(a, copy, c), archive, options.withDeduplication(true));
+        Assertions.assertTrue(Files.size(archive) < Files.size(full) * 2 / 3);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination, parallelism);
+        Assertions.assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(destination.resolve("b.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(c), Files.readAllBytes(destination.resolve("c.bin")));
+        Assertions.assertTrue(Files.isSameFile(destination.resolve("a.bin"), destination.resolve("b.bin")));
+    }
+
+    private void packUnpack(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = createFile("a.bin", 5_000);
+        var b = createFile("b.bin", 2_000_000);
+        var archive = this.folder.resolve(archiveName);
+        archiver.pack(List.of(a, b), archive);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination);
+        Assertions.assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(destination.resolve("a.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(b), Files.readAllBytes(destination.resolve("b.bin")));
+    }
+
+    private void unpackSingleFile(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = createFile("a.bin", 5_000);
+        var b = createFile("b.bin", 6_000);
+        var archive = this.folder.resolve(archiveName);
+        archiver.pack(List.of(a, b), archive);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, "b.bin", destination);
+        Assertions.assertFalse(Files.exists(destination.resolve("a.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(b), Files.readAllBytes(destination.resolve("b.bin")));
+    }
+
+    private void unpackSeveralFiles(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var files = List.of(createFile("a.bin", 5_000), createFile("b.bin", 6_000), createFile("c.bin", 7_000), createFile("d.bin", 8_000));
+        var archive = this.folder.resolve(archiveName);
+        archiver.pack(files, archive);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, List.of("d.bin", "b.bin"), destination);
+        Assertions.assertFalse(Files.exists(destination.resolve("a.bin")));
+        Assertions.assertFalse(Files.exists(destination.resolve("c.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(files.get(1)), Files.readAllBytes(destination.resolve("b.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(files.get(3)), Files.readAllBytes(destination.resolve("d.bin")));
+    }
+
+    private void unpackParallel(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var files = new ArrayList<Path>();
+        for (int i = 0; i < 20; i++) {
+            files.add(createFile("file" + i + ".bin", i * 10_000));
+        }
+        var archive = this.folder.resolve(archiveName);
+        archiver.pack(files, archive);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(archive, destination, Parallelism.of(4));
+        for (var file : files) {
+            Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(destination.resolve(file.getFileName())));
+        }
+    }
+
+    private void packUnpackStream(ArchiveFormat format) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = Files.readAllBytes(createFile("a.bin", 5_000));
+        var b = Files.readAllBytes(createFile("b.bin", 300_000));
+        var output = new ByteArrayOutputStream();
+        archiver.pack(List.of(EntrySource.of("a.bin", new ByteArrayInputStream(a)), EntrySource.of("dir/b.bin", new ByteArrayInputStream(b))), format, output);
+        var archive = Files.write(this.folder.resolve("archive" + format.getExtension()), output.toByteArray());
+        var stream = new ByteArrayOutputStream();
+        Assertions.assertEquals(a.length, archiver.unpack(archive, "a.bin", stream));
+        Assertions.assertArrayEquals(a, stream.toByteArray());
+        var buffer = ByteBuffer.allocateDirect(b.length);
+        Assertions.assertEquals(b.length, archiver.unpack(archive, "dir/b.bin", buffer));
+        var read = new byte[b.length];
+        buffer.flip().get(read);
+        Assertions.assertArrayEquals(b, read);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> archiver.unpack(archive, "missing.bin", new ByteArrayOutputStream()));
+    }
+
+    private void packStreamWithOptions(ArchiveFormat format) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = Files.readAllBytes(createFile("a.bin", 50_000));
+        var stored = new ByteArrayOutputStream();
+        archiver.pack(List.of(EntrySource.of("a.bin", new ByteArrayInputStream(a))), format, CompressionOptions.of(CompressionOptions.Preset.STORE), stored);
+        var archive = Files.write(this.folder.resolve("archive" + format.getExtension()), stored.toByteArray());
+        var content = new ByteArrayOutputStream();
+        archiver.unpack(archive, "a.bin", content);
+        Assertions.assertArrayEquals(a, content.toByteArray());
+        var deduplicate = CompressionOptions.DEFAULT.withDeduplication(true);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> archiver.pack(List.of(EntrySource.of("a.bin", new ByteArrayInputStream(a))), format, deduplicate, new ByteArrayOutputStream()));
+    }
+
+    private void unpackFromChannel(ArchiveFormat format) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var a = createFile("a.bin", 5_000);
+        var b = createFile("b.bin", 6_000);
+        var archive = this.folder.resolve("archive" + format.getExtension());
+        archiver.pack(List.of(a, b), archive);
+        var content = Files.readAllBytes(archive);
+        var buffer = ByteBuffer.allocateDirect(content.length).put(content).flip();
+        var channel = new MemorySegmentChannel(buffer);
+        var destination = this.folder.resolve("out");
+        archiver.unpack(channel, format, destination);
+        Assertions.assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(destination.resolve("a.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(b), Files.readAllBytes(destination.resolve("b.bin")));
+        var output = new ByteArrayOutputStream();
+        Assertions.assertEquals(6_000, archiver.unpack(channel, format, "b.bin", output));
+        Assertions.assertArrayEquals(Files.readAllBytes(b), output.toByteArray());
+        Assertions.assertTrue(channel.isOpen());
+    }
+
+    private void packWithOptions(String archiveName) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var files = List.of(createFile("a.bin", 50_000), createFile("b.bin", 200_000));
+        var sizes = new ArrayList<Long>();
+        for (var method : CompressionOptions.Method.values()) {
+            var archive = this.folder.resolve(method + archiveName);
+            archiver.pack(files, archive, new CompressionOptions(method, 9, 1024 * 1024, 2));
+            var destination = this.folder.resolve("out" + method);
+            archiver.unpack(archive, destination);
+            for (var file : files) {
+                Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(destination.resolve(file.getFileName())));
+            }
+            sizes.add(Files.size(archive));
+        }
+        Assertions.assertTrue(sizes.getFirst() > sizes.getLast());
+    }
+
+    private void progress(String archiveName, CompressionOptions options) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var files = List.of(createFile("a.bin", 2_500_000), createFile("b.bin", 3_000_000));
+        var archive = this.folder.resolve(archiveName);
+        var packed = new ArrayList<long[]>();
+        var entries = new ArrayList<String>();
+        ProgressListener listener = new ProgressListener() {
+            @Override
+            public boolean onProgress(String entry, long processedBytes, long totalBytes) {
+                packed.add(new long[]{processedBytes, totalBytes});
+                entries.add(entry);
+                return true;
+            }
+
+            @Override
+            public Duration interval() {
+                return Duration.ZERO;
+            }
+        };
+        archiver.pack(files, archive, options, listener);
+        Assertions.assertTrue(packed.size() > 2);
+        Assertions.assertArrayEquals(new long[]{5_500_000, 5_500_000}, packed.getLast());
+        Assertions.assertNull(entries.getLast());
+        Assertions.assertTrue(entries.contains("a.bin"));
+        packed.clear();
+        archiver.unpack(archive, this.folder.resolve("out"), listener);
+        Assertions.assertArrayEquals(new long[]{5_500_000, 5_500_000}, packed.getLast());
+        for (int i = 1; i < packed.size(); i++) {
+            Assertions.assertTrue(packed.get(i)[0] >= packed.get(i - 1)[0]);
+        }
+    }
+
+    private void cancelPack(String archiveName, CompressionOptions options) throws IOException {
+        var archiver = new JavaSevenZipArchiver();
+        var files = List.of(createFile("a.bin", 3_000_000), createFile("b.bin", 3_000_000));
+        var archive = this.folder.resolve(archiveName);
+        Assertions.assertThrows(CancellationException.class, () -> archiver.pack(files, archive, options, (entry, processed, total) -> processed < 1_000_000));
+        Assertions.assertFalse(Files.exists(archive));
+    }
+
+    private Path createFile(String name, int size) throws IOException {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        for (int i = 0; i < size; i += 3) {
+            content[i] = 0;
+        }
+        return Files.write(this.folder.resolve(name), content);
+    }
+}
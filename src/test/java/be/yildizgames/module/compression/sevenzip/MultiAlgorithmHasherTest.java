@@ -0,0 +1,90 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.HashingFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class MultiAlgorithmHasherTest {
+
+    @Test
+    void severalChunks() throws IOException {
+        var content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        var expected = HashingFactory.get(Algorithm.CRC32).compute(new ByteArrayInputStream(content)).getBytes();
+        try (var hasher = new MultiAlgorithmHasher(Algorithm.CRC32, Algorithm.CRC32, Algorithm.CRC32)) {
+            var result = hasher.compute(new ByteArrayInputStream(content), content.length);
+            Assertions.assertEquals(3, result.size());
+            for (var hash : result) {
+                Assertions.assertArrayEquals(expected, hash.getBytes());
+            }
+        }
+    }
+
+    @Test
+    void emptyStream() throws IOException {
+        var expected = HashingFactory.get(Algorithm.CRC32).compute(new ByteArrayInputStream(new byte[0])).getBytes();
+        try (var hasher = new MultiAlgorithmHasher(Algorithm.CRC32, Algorithm.CRC32)) {
+            var result = hasher.compute(new ByteArrayInputStream(new byte[0]), 0);
+            Assertions.assertArrayEquals(expected, result.get(1).getBytes());
+        }
+    }
+
+    @Test
+    void sizeAboveIntRange() throws IOException {
+        var content = new byte[1_000];
+        new Random(7).nextBytes(content);
+        var expected = HashingFactory.get(Algorithm.MD5).compute(new ByteArrayInputStream(content)).getBytes();
+        var size = 3L * 1024 * 1024 * 1024;
+        try (var hasher = new MultiAlgorithmHasher(Algorithm.MD5)) {
+            Assertions.assertArrayEquals(expected, hasher.compute(new ByteArrayInputStream(content), size).getFirst().getBytes());
+        }
+        try (var hasher = new MultiAlgorithmHasher(Algorithm.MD5, Algorithm.MD5)) {
+            Assertions.assertArrayEquals(expected, hasher.compute(new ByteArrayInputStream(content), size).get(1).getBytes());
+        }
+    }
+
+    @Test
+    void noAlgorithm() throws IOException {
+        try (var hasher = new MultiAlgorithmHasher()) {
+            Assertions.assertTrue(hasher.compute(new ByteArrayInputStream(new byte[10]), 10).isEmpty());
+        }
+    }
+
+    @Test
+    void sourceFailure() {
+        var source = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        try (var hasher = new MultiAlgorithmHasher(Algorithm.CRC32, Algorithm.CRC32)) {
+            Assertions.assertThrows(IOException.class, () -> hasher.compute(source, 10));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class NativeScratchTest {
+
+    @Test
+    void sizeOfIsEnough() {
+        var paths = new String[]{"C:\\dossier\\été\\fichier.7z", "日本語/ファイル.bin", ""};
+        var allocator = NativeScratch.allocator(NativeScratch.sizeOf(paths));
+        var array = NativeScratch.allocatePaths(allocator, paths);
+        for (int i = 0; i < paths.length; i++) {
+            var address = array.getAtIndex(ValueLayout.ADDRESS, i).reinterpret(Long.MAX_VALUE);
+            Assertions.assertEquals(paths[i], address.getString(0));
+        }
+    }
+
+    @Test
+    void grow() {
+        var path = "a".repeat((int) NativeScratch.INITIAL_SIZE);
+        var allocator = NativeScratch.allocator(NativeScratch.sizeOf(path));
+        Assertions.assertEquals(path, allocator.allocateFrom(path).getString(0));
+    }
+
+    @Test
+    void threadsDoNotShareMemory() throws Exception {
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                var value = "thread-" + t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        var segment = NativeScratch.allocator(NativeScratch.sizeOf(value)).allocateFrom(value);
+                        Thread.onSpinWait();
+                        if (!value.equals(segment.getString(0))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (var result : results) {
+                Assertions.assertTrue(result.get());
+            }
+        }
+    }
+}
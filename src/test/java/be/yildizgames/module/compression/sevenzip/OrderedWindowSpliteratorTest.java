@@ -0,0 +1,78 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class OrderedWindowSpliteratorTest {
+
+    @Test
+    void keepOrder() {
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var source = IntStream.range(0, 1000).boxed().iterator();
+            var spliterator = new OrderedWindowSpliterator<Integer, Integer>(source, i -> {
+                if (i % 7 == 0) {
+                    Thread.yield();
+                }
+                return i * 2;
+            }, executor, 16);
+            var result = StreamSupport.stream(spliterator, false).toList();
+            Assertions.assertEquals(1000, result.size());
+            for (int i = 0; i < result.size(); i++) {
+                Assertions.assertEquals(i * 2, result.get(i));
+            }
+        }
+    }
+
+    @Test
+    void boundedWindow() {
+        var started = new AtomicInteger();
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            var source = IntStream.range(0, 1000).boxed().iterator();
+            var spliterator = new OrderedWindowSpliterator<Integer, Integer>(source, i -> {
+                started.incrementAndGet();
+                return i;
+            }, executor, 10);
+            var result = StreamSupport.stream(spliterator, false).limit(5).toList();
+            Assertions.assertEquals(5, result.size());
+            Assertions.assertTrue(started.get() <= 15);
+        }
+    }
+
+    @Test
+    void failure() {
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            var source = IntStream.range(0, 100).boxed().iterator();
+            var spliterator = new OrderedWindowSpliterator<Integer, Integer>(source, i -> {
+                if (i == 50) {
+                    throw new IllegalStateException("failure");
+                }
+                return i;
+            }, executor, 10);
+            Assertions.assertThrows(IllegalStateException.class, () -> StreamSupport.stream(spliterator, false).toList());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ParallelExtractorTest {
+
+    @Test
+    void splitBySize() {
+        var entries = entries(100, 100, 100, 100, 400);
+        var result = ParallelExtractor.split(entries, List.of(0, 1, 2, 3, 4), new int[]{0, 1, 2, 3, 4}, 2);
+        Assertions.assertEquals(List.of(List.of(0, 1, 2, 3), List.of(4)), result);
+    }
+
+    @Test
+    void splitMoreRangesThanFiles() {
+        var entries = entries(10, 10);
+        var result = ParallelExtractor.split(entries, List.of(0, 1), new int[]{0, 1}, 4);
+        Assertions.assertEquals(List.of(List.of(0), List.of(1)), result);
+    }
+
+    @Test
+    void splitKeepsFolders() {
+        var entries = entries(100, 100, 100, 100, 100, 100);
+        var result = ParallelExtractor.split(entries, List.of(0, 1, 2, 3, 4, 5), new int[]{0, 0, 1, 1, 2, 2}, 3);
+        Assertions.assertEquals(List.of(List.of(0, 1), List.of(2, 3), List.of(4, 5)), result);
+    }
+
+    @Test
+    void splitEmptyEntryJoinsCurrentFolder() {
+        var entries = entries(100, 0, 100);
+        var result = ParallelExtractor.split(entries, List.of(0, 1, 2), new int[]{0, -1, 1}, 2);
+        Assertions.assertEquals(List.of(List.of(0, 1), List.of(2)), result);
+    }
+
+    @Test
+    void splitSolidArchive() {
+        var entries = entries(100, 100, 100, 100);
+        var result = ParallelExtractor.split(entries, List.of(0, 1, 2, 3), new int[]{0, 0, 0, 0}, 4);
+        Assertions.assertEquals(List.of(List.of(0, 1, 2, 3)), result);
+    }
+
+    @Test
+    void splitOneFolderHoldsMostData() {
+        var entries = entries(100, 100, 1000, 100);
+        var result = ParallelExtractor.split(entries, List.of(0, 1, 2, 3), new int[]{0, 1, 2, 2}, 4);
+        Assertions.assertEquals(List.of(List.of(0, 1, 2, 3)), result);
+    }
+
+    @Test
+    void splitUnknownFolders() {
+        var entries = entries(100, 100);
+        var result = ParallelExtractor.split(entries, List.of(0, 1), null, 2);
+        Assertions.assertEquals(List.of(List.of(0, 1)), result);
+    }
+
+    @Test
+    void splitEmpty() {
+        var result = ParallelExtractor.split(List.of(), List.of(), new int[0], 4);
+        Assertions.assertEquals(List.of(List.of()), result);
+    }
+
+    @Test
+    void foldersSolidArchive() throws IOException {
+        var archive = Path.of("src/test/resources/solid.7z");
+        try (var sevenZFile = ParallelExtractor.open(archive)) {
+            var entries = ParallelExtractor.list(sevenZFile);
+            Assertions.assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0}, SevenZipFolders.read(archive, entries));
+        }
+    }
+
+    @Test
+    void foldersOneFolderPerEntry(@TempDir Path folder) throws IOException {
+        var files = new ArrayList<Path>();
+        for (int i = 0; i < 3; i++) {
+            files.add(Files.writeString(folder.resolve("file" + i + ".txt"), "content " + i));
+        }
+        files.add(Files.createFile(folder.resolve("empty.txt")));
+        var archive = folder.resolve("archive.7z");
+        new JavaSevenZipArchiver().pack(files, archive, CompressionOptions.DEFAULT);
+        try (var sevenZFile = ParallelExtractor.open(archive)) {
+            var entries = ParallelExtractor.list(sevenZFile);
+            Assertions.assertArrayEquals(new int[]{0, 1, 2, -1}, SevenZipFolders.read(archive, entries));
+        }
+    }
+
+    @Test
+    void unpackSolidArchive(@TempDir Path folder) throws IOException {
+        var archive = Path.of("src/test/resources/solid.7z");
+        var archiver = new JavaSevenZipArchiver();
+        var sequential = folder.resolve("sequential");
+        var parallel = folder.resolve("parallel");
+        archiver.unpack(archive, sequential);
+        archiver.unpack(archive, parallel, Parallelism.of(4));
+        for (int i = 0; i < 6; i++) {
+            var name = "file" + i + ".txt";
+            Assertions.assertArrayEquals(Files.readAllBytes(sequential.resolve(name)), Files.readAllBytes(parallel.resolve(name)));
+        }
+    }
+
+    @Test
+    void verifySolidArchive() throws IOException {
+        var report = new JavaSevenZipArchiver().verify(Path.of("src/test/resources/solid.7z"), Parallelism.of(4));
+        Assertions.assertEquals(6, report.entries());
+        Assertions.assertTrue(report.corruptEntries().isEmpty());
+    }
+
+    private static List<SevenZArchiveEntry> entries(long... sizes) {
+        var result = new ArrayList<SevenZArchiveEntry>();
+        for (var size : sizes) {
+            var entry = new SevenZArchiveEntry();
+            entry.setSize(size);
+            result.add(entry);
+        }
+        return result;
+    }
+}
@@ -17,10 +17,18 @@
 package be.yildizgames.module.compression.sevenzip;
 
 import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.HashingFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
 
 /**
  * @author Grégory Van den Borre
@@ -44,4 +52,73 @@ class SevenZipFileInfoRetrieverTest {
         Assertions.assertEquals(0, hash[7]);
     }
 
+    @Test
+    void multipleAlgorithms() {
+        var retriever = new SevenZipFileInfoRetriever(Path.of("src/test/resources/archive.7z"));
+        var expected = retriever.getFileInfo(Algorithm.CRC32).getFirst().hashes().getFirst().getBytes();
+        var result = retriever.getFileInfo(Algorithm.MD5, Algorithm.CRC32);
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(2, result.getFirst().hashes().size());
+        Assertions.assertArrayEquals(md5("jpeg.jpg"), result.getFirst().hashes().get(0).getBytes());
+        Assertions.assertArrayEquals(expected, result.getFirst().hashes().get(1).getBytes());
+    }
+
+    @Test
+    void entryInfo() {
+        var retriever = new SevenZipFileInfoRetriever(Path.of("src/test/resources/archive.7z"));
+        var result = retriever.getEntryInfo();
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals("jpeg.jpg", result.getFirst().name());
+        Assertions.assertEquals(17989, result.getFirst().size());
+        Assertions.assertEquals(0xFCA83AAEL, result.getFirst().crc());
+        Assertions.assertNotNull(result.getFirst().lastModified());
+    }
+
+    @Test
+    void stream() {
+        var retriever = new SevenZipFileInfoRetriever(Path.of("src/test/resources/archive.7z"));
+        try (var stream = retriever.streamFileInfo(Algorithm.MD5)) {
+            var result = stream.toList();
+            Assertions.assertEquals(1, result.size());
+            Assertions.assertEquals("jpeg.jpg", result.getFirst().name());
+            Assertions.assertArrayEquals(md5("jpeg.jpg"), result.getFirst().hashes().getFirst().getBytes());
+        }
+    }
+
+    @Test
+    void inMemory() throws IOException {
+        var channel = new MemorySegmentChannel(Files.readAllBytes(Path.of("src/test/resources/archive.7z")));
+        var retriever = new SevenZipFileInfoRetriever(channel);
+        Assertions.assertEquals(0xFCA83AAEL, retriever.getEntryInfo().getFirst().crc());
+        var result = retriever.getFileInfo(Algorithm.MD5);
+        Assertions.assertEquals("jpeg.jpg", result.getFirst().name());
+        Assertions.assertArrayEquals(md5("jpeg.jpg"), result.getFirst().hashes().getFirst().getBytes());
+        Assertions.assertTrue(channel.isOpen());
+    }
+
+    @Test
+    void duplicate(@TempDir Path folder) throws IOException {
+        var content = new byte[100_000];
+        new Random(3).nextBytes(content);
+        var a = Files.write(folder.resolve("a.bin"), content);
+        var copy = Files.write(Files.createDirectories(folder.resolve("copy")).resolve("b.bin"), content);
+        var archive = folder.resolve("archive.7z");
+        new JavaSevenZipArchiver().pack(List.of(a, copy), archive, CompressionOptions.DEFAULT.withDeduplication(true));
+        var retriever = new SevenZipFileInfoRetriever(archive);
+        var info = retriever.getEntryInfo();
+        Assertions.assertEquals("b.bin", info.get(1).name());
+        Assertions.assertEquals(content.length, info.get(1).size());
+        Assertions.assertEquals(info.get(0).crc(), info.get(1).crc());
+        var result = retriever.getFileInfo(Algorithm.MD5);
+        Assertions.assertArrayEquals(HashingFactory.get(Algorithm.MD5).compute(new ByteArrayInputStream(content)).getBytes(), result.get(1).hashes().getFirst().getBytes());
+    }
+
+    /**
+     * MD5 of an entry of the test archive, computed from its extracted content.
+     */
+    private static byte[] md5(String name) {
+        var content = new ByteArrayOutputStream();
+        new JavaSevenZipArchiver().unpack(Path.of("src/test/resources/archive.7z"), name, content);
+        return HashingFactory.get(Algorithm.MD5).compute(new ByteArrayInputStream(content.toByteArray())).getBytes();
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *  Copyright (c) 2024 Grégory Van den Borre
+ *  More infos available: https://engine.yildiz-games.be
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to the following conditions: The above copyright
+ *  notice and this permission notice shall be included in all copies or substantial portions of the  Software.
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ *  OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.compression.sevenzip;
+
+import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.HashingFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class StoredCrcTest {
+
+    @Test
+    void preimage() {
+        var random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            var expected = random.nextInt() & 0xFFFFFFFFL;
+            var crc = new CRC32();
+            crc.update(StoredCrc.preimage(expected));
+            Assertions.assertEquals(expected, crc.getValue());
+        }
+    }
+
+    @Test
+    void toFileHash() {
+        var content = new byte[5000];
+        new Random(5).nextBytes(content);
+        var crc = new CRC32();
+        crc.update(content);
+        var expected = HashingFactory.get(Algorithm.CRC32).compute(new ByteArrayInputStream(content)).getBytes();
+        Assertions.assertArrayEquals(expected, StoredCrc.toFileHash(crc.getValue()).getBytes());
+    }
+}
@@ -17,10 +17,19 @@
 package be.yildizgames.module.compression.sevenzip;
 
 import be.yildizgames.common.hashing.Algorithm;
+import be.yildizgames.common.hashing.HashingFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
 
 /**
  * @author Grégory Van den Borre
@@ -45,4 +54,98 @@ class ZipFileInfoRetrieverTest {
 
     }
 
+    @Test
+    void parallel(@TempDir Path folder) throws IOException {
+        var files = new ArrayList<Path>();
+        var random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            var content = new byte[random.nextInt(100_000)];
+            random.nextBytes(content);
+            files.add(Files.write(folder.resolve("file" + i + ".bin"), content));
+        }
+        var archive = folder.resolve("archive.zip");
+        new JavaSevenZipArchiver().pack(files, archive);
+        var expected = new ZipFileInfoRetriever(archive).getFileInfo(Algorithm.MD5, Algorithm.CRC32);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var result = new ZipFileInfoRetriever(archive, executor).getFileInfo(Algorithm.MD5, Algorithm.CRC32);
+            Assertions.assertEquals(50, result.size());
+            for (int i = 0; i < result.size(); i++) {
+                Assertions.assertEquals("file" + i + ".bin", result.get(i).name());
+                Assertions.assertEquals(expected.get(i).name(), result.get(i).name());
+                Assertions.assertArrayEquals(md5(files.get(i)), result.get(i).hashes().get(0).getBytes());
+                Assertions.assertArrayEquals(expected.get(i).hashes().get(0).getBytes(), result.get(i).hashes().get(0).getBytes());
+                Assertions.assertArrayEquals(expected.get(i).hashes().get(1).getBytes(), result.get(i).hashes().get(1).getBytes());
+            }
+        }
+    }
+
+    @Test
+    void entryInfo() {
+        var retriever = new ZipFileInfoRetriever(Path.of("src/test/resources/archive.zip"));
+        var result = retriever.getEntryInfo();
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals("jpeg.jpg", result.getFirst().name());
+        Assertions.assertEquals(17989, result.getFirst().size());
+        Assertions.assertEquals(0xFCA83AAEL, result.getFirst().crc());
+        Assertions.assertNotNull(result.getFirst().lastModified());
+    }
+
+    @Test
+    void stream(@TempDir Path folder) throws IOException {
+        var files = new ArrayList<Path>();
+        var random = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            var content = new byte[random.nextInt(1_000)];
+            random.nextBytes(content);
+            files.add(Files.write(folder.resolve("file" + i + ".bin"), content));
+        }
+        var archive = folder.resolve("archive.zip");
+        new JavaSevenZipArchiver().pack(files, archive);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+             var stream = new ZipFileInfoRetriever(archive, executor).streamFileInfo(Algorithm.MD5)) {
+            var result = stream.limit(270).toList();
+            Assertions.assertEquals(270, result.size());
+            for (int i = 0; i < result.size(); i++) {
+                Assertions.assertEquals("file" + i + ".bin", result.get(i).name());
+                Assertions.assertArrayEquals(md5(files.get(i)), result.get(i).hashes().getFirst().getBytes());
+            }
+        }
+    }
+
+    @Test
+    void memoryMapped() {
+        var expected = new ZipFileInfoRetriever(Path.of("src/test/resources/archive.zip")).getFileInfo(Algorithm.MD5, Algorithm.CRC32).getFirst();
+        try (var arena = Arena.ofConfined()) {
+            var channel = MemorySegmentChannel.map(Path.of("src/test/resources/archive.zip"), arena);
+            var retriever = new ZipFileInfoRetriever(channel, Executors.newVirtualThreadPerTaskExecutor());
+            Assertions.assertEquals(17989, retriever.getEntryInfo().getFirst().size());
+            var result = retriever.getFileInfo(Algorithm.MD5, Algorithm.CRC32);
+            Assertions.assertEquals("jpeg.jpg", result.getFirst().name());
+            Assertions.assertArrayEquals(expected.hashes().get(0).getBytes(), result.getFirst().hashes().get(0).getBytes());
+            Assertions.assertArrayEquals(expected.hashes().get(1).getBytes(), result.getFirst().hashes().get(1).getBytes());
+        }
+    }
+
+    @Test
+    void duplicate(@TempDir Path folder) throws IOException {
+        var content = new byte[100_000];
+        new Random(3).nextBytes(content);
+        var a = Files.write(folder.resolve("a.bin"), content);
+        var copy = Files.write(Files.createDirectories(folder.resolve("copy")).resolve("b.bin"), content);
+        var archive = folder.resolve("archive.zip");
+        new JavaSevenZipArchiver().pack(List.of(a, copy), archive, CompressionOptions.DEFAULT.withDeduplication(true));
+        var retriever = new ZipFileInfoRetriever(archive);
+        var info = retriever.getEntryInfo();
+        Assertions.assertEquals("b.bin", info.get(1).name());
+        Assertions.assertEquals(content.length, info.get(1).size());
+        Assertions.assertEquals(info.get(0).crc(), info.get(1).crc());
+        var result = retriever.getFileInfo(Algorithm.MD5);
+        Assertions.assertArrayEquals(md5(a), result.get(1).hashes().getFirst().getBytes());
+    }
+
+    private static byte[] md5(Path file) throws IOException {
+        try (var in = Files.newInputStream(file)) {
+            return HashingFactory.get(Algorithm.MD5).compute(in).getBytes();
+        }
+    }
 }